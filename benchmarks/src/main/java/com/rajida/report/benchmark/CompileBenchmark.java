@@ -0,0 +1,53 @@
+package com.rajida.report.benchmark;
+
+import com.rajida.report.service.FieldConverterPlan;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.ByteArrayInputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * JRXML compilation (expression classes generated and compiled with JDT), the cost
+ * paid on every upload and on a cold compiled-template cache
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CompileBenchmark {
+
+    @Param({Templates.SAVINGS_PRODUCT_SUMMARY, Templates.SAVINGS_MEMBER_LIST_SI})
+    private String template;
+
+    private byte[] source;
+
+    @Setup
+    public void setUp() {
+        source = Templates.read(template);
+    }
+
+    @Benchmark
+    public JasperReport compile() throws JRException {
+        return JasperCompileManager.compileReport(new ByteArrayInputStream(source));
+    }
+
+    @Benchmark
+    public FieldConverterPlan compileWithConverterPlan() throws JRException {
+        return FieldConverterPlan.of(JasperCompileManager.compileReport(new ByteArrayInputStream(source)));
+    }
+}
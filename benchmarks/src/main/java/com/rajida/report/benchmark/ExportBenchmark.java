@@ -0,0 +1,83 @@
+package com.rajida.report.benchmark;
+
+import com.rajida.report.service.FieldConverterPlan;
+import com.rajida.report.service.IndexedRecordDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.export.HtmlExporter;
+import net.sf.jasperreports.engine.export.JRPdfExporter;
+import net.sf.jasperreports.export.SimpleExporterInput;
+import net.sf.jasperreports.export.SimpleHtmlExporterOutput;
+import net.sf.jasperreports.export.SimpleOutputStreamExporterOutput;
+import net.sf.jasperreports.export.SimplePdfExporterConfiguration;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * PDF vs HTML export of the same filled report, output discarded
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ExportBenchmark {
+
+    @Param({"1000", "10000"})
+    private int rows;
+
+    private JasperPrint jasperPrint;
+
+    @Setup
+    public void setUp() throws Exception {
+        JasperReport jasperReport = Templates.compile(Templates.SAVINGS_PRODUCT_SUMMARY);
+        FieldConverterPlan plan = FieldConverterPlan.of(jasperReport);
+        jasperPrint = JasperFillManager.fillReport(jasperReport, new HashMap<>(),
+                new IndexedRecordDataSource(plan, plan.convert(SavingsDataGenerator.generate(rows, 42))));
+    }
+
+    @Benchmark
+    public void pdf() throws JRException {
+        exportPdf(jasperPrint);
+    }
+
+    @Benchmark
+    public void html() throws JRException {
+        HtmlExporter exporter = new HtmlExporter();
+        exporter.setExporterInput(new SimpleExporterInput(jasperPrint));
+        exporter.setExporterOutput(new SimpleHtmlExporterOutput(Writer.nullWriter()));
+        exporter.exportReport();
+    }
+
+    /**
+     * PDF export configured as in ReportService.createPdfExporter
+     */
+    static void exportPdf(JasperPrint jasperPrint) throws JRException {
+        JRPdfExporter exporter = new JRPdfExporter();
+        exporter.setExporterInput(new SimpleExporterInput(jasperPrint));
+        exporter.setExporterOutput(new SimpleOutputStreamExporterOutput(OutputStream.nullOutputStream()));
+        SimplePdfExporterConfiguration exportConfig = new SimplePdfExporterConfiguration();
+        exportConfig.setMetadataTitle("Report");
+        exportConfig.setMetadataAuthor("Rajida Report Service");
+        exportConfig.setCompressed(true);
+        exporter.setConfiguration(exportConfig);
+        exporter.exportReport();
+    }
+}
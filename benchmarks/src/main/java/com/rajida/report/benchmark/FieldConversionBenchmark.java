@@ -0,0 +1,61 @@
+package com.rajida.report.benchmark;
+
+import com.rajida.report.service.FieldConverterPlan;
+import com.rajida.report.service.IndexedRecordDataSource;
+import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.data.JRMapArrayDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Legacy per-request HashMap conversion vs the per-report FieldConverterPlan.
+ * Run with -prof gc to compare allocation per operation as well as time.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FieldConversionBenchmark {
+
+    @Param({"1000", "100000"})
+    private int rows;
+
+    private JasperReport jasperReport;
+    private FieldConverterPlan plan;
+    private List<Map<String, Object>> dataRecords;
+
+    @Setup
+    public void setUp() throws Exception {
+        jasperReport = Templates.compile(Templates.SAVINGS_PRODUCT_SUMMARY);
+        plan = FieldConverterPlan.of(jasperReport);
+        dataRecords = SavingsDataGenerator.generate(rows, 42);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public JRDataSource legacyHashMapRows() {
+        List<Map<String, Object>> converted = LegacyRecordConverter.convert(dataRecords, jasperReport);
+        return new JRMapArrayDataSource(converted.toArray(new Map[0]));
+    }
+
+    @Benchmark
+    public JRDataSource compiledPlanRows() {
+        return new IndexedRecordDataSource(plan, plan.convert(dataRecords));
+    }
+}
@@ -0,0 +1,66 @@
+package com.rajida.report.benchmark;
+
+import com.rajida.report.service.FieldConverterPlan;
+import com.rajida.report.service.IndexedRecordDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.data.JRMapArrayDataSource;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Report fill alone, rows already converted: the original JRMapArrayDataSource
+ * over HashMap rows vs IndexedRecordDataSource over plan-converted rows
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class FillBenchmark {
+
+    @Param({"1000", "10000"})
+    private int rows;
+
+    private JasperReport jasperReport;
+    private FieldConverterPlan plan;
+    private Object[] mapRows;
+    private List<Object[]> indexedRows;
+
+    @Setup
+    public void setUp() throws Exception {
+        jasperReport = Templates.compile(Templates.SAVINGS_PRODUCT_SUMMARY);
+        plan = FieldConverterPlan.of(jasperReport);
+        List<Map<String, Object>> dataRecords = SavingsDataGenerator.generate(rows, 42);
+        mapRows = LegacyRecordConverter.convert(dataRecords, jasperReport).toArray();
+        indexedRows = plan.convert(dataRecords);
+    }
+
+    @Benchmark
+    public JasperPrint mapArrayDataSource() throws JRException {
+        return JasperFillManager.fillReport(jasperReport, new HashMap<>(), new JRMapArrayDataSource(mapRows));
+    }
+
+    @Benchmark
+    public JasperPrint indexedDataSource() throws JRException {
+        return JasperFillManager.fillReport(jasperReport, new HashMap<>(),
+                new IndexedRecordDataSource(plan, indexedRows));
+    }
+}
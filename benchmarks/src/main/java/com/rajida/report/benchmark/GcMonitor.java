@@ -0,0 +1,137 @@
+package com.rajida.report.benchmark;
+
+import com.sun.management.GarbageCollectionNotificationInfo;
+import com.sun.management.GcInfo;
+import org.HdrHistogram.Histogram;
+
+import javax.management.ListenerNotFoundException;
+import javax.management.Notification;
+import javax.management.NotificationEmitter;
+import javax.management.NotificationListener;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.lang.management.MemoryUsage;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+/**
+ * Heap and GC figures of this JVM over a measurement, from GC notifications:
+ * allocation (heap used before each collection minus heap used after the previous one),
+ * pause times and the highest heap use seen before a collection.
+ */
+final class GcMonitor implements NotificationListener {
+
+    private final Set<String> heapPools = ManagementFactory.getMemoryPoolMXBeans().stream()
+            .filter(pool -> pool.getType() == MemoryType.HEAP)
+            .map(MemoryPoolMXBean::getName)
+            .collect(Collectors.toSet());
+    private final Histogram pauses = new Histogram(60_000_000L, 3);
+    private long allocatedBytes;
+    private long lastUsedAfterGc;
+    private long peakUsedBytes;
+    private long collections;
+    private long pauseMicros;
+    private long startNanos;
+    private long elapsedNanos;
+
+    /**
+     * Start listening; figures cover the time until stop()
+     */
+    synchronized void start() {
+        lastUsedAfterGc = heapUsed();
+        peakUsedBytes = lastUsedAfterGc;
+        startNanos = System.nanoTime();
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            ((NotificationEmitter) gc).addNotificationListener(this, null, null);
+        }
+    }
+
+    synchronized void stop() {
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            try {
+                ((NotificationEmitter) gc).removeNotificationListener(this);
+            } catch (ListenerNotFoundException e) {
+                // Not registered
+            }
+        }
+        long used = heapUsed();
+        allocatedBytes += Math.max(0, used - lastUsedAfterGc);
+        peakUsedBytes = Math.max(peakUsedBytes, used);
+        elapsedNanos = System.nanoTime() - startNanos;
+    }
+
+    @Override
+    public synchronized void handleNotification(Notification notification, Object handback) {
+        if (!GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION.equals(notification.getType())) {
+            return;
+        }
+        GarbageCollectionNotificationInfo info =
+                GarbageCollectionNotificationInfo.from((CompositeData) notification.getUserData());
+        GcInfo gcInfo = info.getGcInfo();
+        long usedBefore = sum(gcInfo.getMemoryUsageBeforeGc());
+        long usedAfter = sum(gcInfo.getMemoryUsageAfterGc());
+
+        allocatedBytes += Math.max(0, usedBefore - lastUsedAfterGc);
+        lastUsedAfterGc = usedAfter;
+        peakUsedBytes = Math.max(peakUsedBytes, usedBefore);
+        collections++;
+        // Concurrent cycles (G1 Concurrent GC, ZGC Cycles) run beside the application, they are not pauses
+        if (!info.getGcName().contains("Concurrent") && !info.getGcName().contains("Cycles")) {
+            long micros = gcInfo.getDuration() * 1000;
+            pauses.recordValue(Math.min(micros, pauses.getHighestTrackableValue()));
+            pauseMicros += micros;
+        }
+    }
+
+    synchronized long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * Allocation rate in MB/s over the measurement
+     */
+    synchronized double getAllocationRateMbPerSecond() {
+        return elapsedNanos == 0 ? 0 : allocatedBytes / 1048576.0 / (elapsedNanos / 1e9);
+    }
+
+    synchronized long getPeakUsedBytes() {
+        return peakUsedBytes;
+    }
+
+    synchronized long getCollections() {
+        return collections;
+    }
+
+    synchronized long getPauseMicros() {
+        return pauseMicros;
+    }
+
+    synchronized Histogram getPauses() {
+        return pauses.copy();
+    }
+
+    static long heapMaxBytes() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getMax();
+    }
+
+    private static long heapUsed() {
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    /**
+     * Heap in use across the pools of a collection; non-heap pools (metaspace, code cache) are skipped
+     */
+    private long sum(Map<String, MemoryUsage> usageByPool) {
+        long used = 0;
+        for (Map.Entry<String, MemoryUsage> entry : usageByPool.entrySet()) {
+            if (heapPools.contains(entry.getKey())) {
+                used += entry.getValue().getUsed();
+            }
+        }
+        return used;
+    }
+}
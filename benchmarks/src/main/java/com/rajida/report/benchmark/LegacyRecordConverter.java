@@ -0,0 +1,83 @@
+package com.rajida.report.benchmark;
+
+import net.sf.jasperreports.engine.JRField;
+import net.sf.jasperreports.engine.JasperReport;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The original ReportService.convertDataRecords (field-type map per call,
+ * string comparison per cell, HashMap per row), kept as a benchmark baseline
+ */
+final class LegacyRecordConverter {
+
+    private LegacyRecordConverter() {
+    }
+
+    static List<Map<String, Object>> convert(List<Map<String, Object>> dataRecords, JasperReport jasperReport) {
+        List<Map<String, Object>> convertedRecords = new ArrayList<>();
+
+        Map<String, String> fieldTypeMap = new HashMap<>();
+        JRField[] fields = jasperReport.getFields();
+        if (fields != null) {
+            for (JRField field : fields) {
+                fieldTypeMap.put(field.getName(), field.getValueClassName());
+            }
+        }
+
+        for (Map<String, Object> record : dataRecords) {
+            Map<String, Object> convertedRecord = new HashMap<>();
+
+            for (String fieldName : record.keySet()) {
+                Object value = record.get(fieldName);
+                String fieldClass = fieldTypeMap.get(fieldName);
+
+                if (fieldClass != null && value != null) {
+                    try {
+                        if ("java.lang.Double".equals(fieldClass) && !(value instanceof Double)) {
+                            if (value instanceof Number) {
+                                value = ((Number) value).doubleValue();
+                            } else if (value instanceof String) {
+                                value = Double.parseDouble((String) value);
+                            }
+                        } else if ("java.lang.Integer".equals(fieldClass) && !(value instanceof Integer)) {
+                            if (value instanceof Number) {
+                                value = ((Number) value).intValue();
+                            } else if (value instanceof String) {
+                                value = Integer.parseInt((String) value);
+                            }
+                        } else if ("java.lang.Long".equals(fieldClass) && !(value instanceof Long)) {
+                            if (value instanceof Number) {
+                                value = ((Number) value).longValue();
+                            } else if (value instanceof String) {
+                                value = Long.parseLong((String) value);
+                            }
+                        } else if ("java.sql.Timestamp".equals(fieldClass) && !(value instanceof Timestamp)) {
+                            if (value instanceof String) {
+                                LocalDateTime ldt = LocalDateTime.parse((String) value,
+                                        DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+                                value = Timestamp.valueOf(ldt);
+                            } else if (value instanceof java.util.Date) {
+                                value = new Timestamp(((java.util.Date) value).getTime());
+                            }
+                        }
+                    } catch (Exception e) {
+                        System.err.println("Failed to convert field " + fieldName + ": " + e.getMessage());
+                    }
+                }
+
+                convertedRecord.put(fieldName, value);
+            }
+
+            convertedRecords.add(convertedRecord);
+        }
+
+        return convertedRecords;
+    }
+}
@@ -0,0 +1,272 @@
+package com.rajida.report.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.rajida.report.RajidaReportApplication;
+import com.rajida.report.model.ReportData;
+import org.HdrHistogram.Histogram;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Concurrent load test of the export-pdf-with-data and export-html-with-data endpoints.
+ * Boots the service in this JVM on a free port, sends requests from a fixed number of
+ * client threads for a warm-up and a measured period, and reports throughput and latency
+ * percentiles per scenario, plus allocation rate, GC pauses and peak heap of the JVM.
+ * Run it with the heap settings to compare, e.g.
+ * <pre>
+ * java -Xmx512m -Xms256m -cp benchmarks/target/benchmarks.jar com.rajida.report.benchmark.LoadTest \
+ *     --concurrency=8 --duration=60 --rows=1000,10000 --formats=pdf,html
+ * </pre>
+ * Options other than OPTIONS are passed to the service, e.g. --report.render.threads=2.
+ */
+public final class LoadTest {
+
+    private static final long MAX_LATENCY_MICROS = 10 * 60 * 1_000_000L;
+
+    /**
+     * Options of the load test itself, all others go to the service
+     */
+    private static final List<String> OPTIONS = List.of("concurrency", "warmup", "duration", "formats",
+            "templates", "rows", "seed", "gzip");
+
+    private final int concurrency;
+    private final int warmupSeconds;
+    private final int durationSeconds;
+    private final List<Scenario> scenarios;
+    private final boolean gzip;
+
+    private LoadTest(Map<String, String> options) {
+        this.concurrency = Integer.parseInt(options.getOrDefault("concurrency", "8"));
+        this.warmupSeconds = Integer.parseInt(options.getOrDefault("warmup", "15"));
+        this.durationSeconds = Integer.parseInt(options.getOrDefault("duration", "60"));
+        this.gzip = Boolean.parseBoolean(options.getOrDefault("gzip", "false"));
+        this.scenarios = new ArrayList<>();
+        long seed = Long.parseLong(options.getOrDefault("seed", "42"));
+        for (String format : list(options.getOrDefault("formats", "pdf,html"))) {
+            for (String template : list(options.getOrDefault("templates", Templates.SAVINGS_PRODUCT_SUMMARY))) {
+                for (String rows : list(options.getOrDefault("rows", "1000"))) {
+                    scenarios.add(new Scenario(format, template, Integer.parseInt(rows), seed));
+                }
+            }
+        }
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = new HashMap<>();
+        List<String> serviceArgs = new ArrayList<>();
+        for (String arg : args) {
+            String name = arg.startsWith("--") && arg.contains("=") ? arg.substring(2, arg.indexOf('=')) : null;
+            if (name != null && OPTIONS.contains(name)) {
+                options.put(name, arg.substring(arg.indexOf('=') + 1));
+            } else {
+                serviceArgs.add(arg);
+            }
+        }
+
+        Path uploadDir = Files.createTempDirectory("loadtest-uploads");
+        Templates.copyTo(uploadDir);
+        serviceArgs.add(0, "--upload.dir=" + uploadDir);
+        serviceArgs.add(0, "--server.port=0");
+        serviceArgs.add(0, "--logging.level.root=WARN");
+        // Identical requests would otherwise be answered from the output cache
+        serviceArgs.add(0, "--report.output-cache.enabled=false");
+
+        ConfigurableApplicationContext context = new SpringApplicationBuilder(RajidaReportApplication.class)
+                .run(serviceArgs.toArray(String[]::new));
+        try {
+            String port = context.getEnvironment().getProperty("local.server.port");
+            new LoadTest(options).run(URI.create("http://localhost:" + port + "/api/reports/"));
+        } finally {
+            context.close();
+            FileSystemUtils.deleteRecursively(uploadDir);
+        }
+    }
+
+    private void run(URI baseUri) throws Exception {
+        HttpClient client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .build();
+        ObjectMapper objectMapper = new ObjectMapper();
+        for (Scenario scenario : scenarios) {
+            scenario.prepare(baseUri, objectMapper);
+        }
+
+        System.out.printf("Load test: %d clients, %d s warm-up, %d s measured, max heap %d MB%n",
+                concurrency, warmupSeconds, durationSeconds, GcMonitor.heapMaxBytes() / 1048576);
+        drive(client, warmupSeconds, false);
+        System.gc();
+
+        GcMonitor gcMonitor = new GcMonitor();
+        gcMonitor.start();
+        long start = System.nanoTime();
+        drive(client, durationSeconds, true);
+        double seconds = (System.nanoTime() - start) / 1e9;
+        gcMonitor.stop();
+
+        report(seconds, gcMonitor);
+    }
+
+    /**
+     * Send requests from all clients until the period ends, each picking a random scenario
+     */
+    private void drive(HttpClient client, int seconds, boolean record) throws Exception {
+        AtomicBoolean running = new AtomicBoolean(true);
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        List<Future<Map<Scenario, Result>>> futures = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            futures.add(clients.submit(() -> {
+                Map<Scenario, Result> results = new HashMap<>();
+                while (running.get()) {
+                    Scenario scenario = scenarios.get(ThreadLocalRandom.current().nextInt(scenarios.size()));
+                    long startNanos = System.nanoTime();
+                    int status;
+                    try {
+                        status = client.send(scenario.request(gzip), HttpResponse.BodyHandlers.discarding())
+                                .statusCode();
+                    } catch (IOException e) {
+                        status = -1;
+                    }
+                    long micros = (System.nanoTime() - startNanos) / 1000;
+                    results.computeIfAbsent(scenario, key -> new Result()).record(status, micros);
+                }
+                return results;
+            }));
+        }
+        Thread.sleep(seconds * 1000L);
+        running.set(false);
+        for (Future<Map<Scenario, Result>> future : futures) {
+            Map<Scenario, Result> results = future.get();
+            if (record) {
+                results.forEach((scenario, result) -> scenario.result.add(result));
+            }
+        }
+        clients.shutdown();
+    }
+
+    private void report(double seconds, GcMonitor gcMonitor) {
+        System.out.println();
+        System.out.printf("%-36s %8s %7s %8s %9s %9s %9s %9s%n",
+                "scenario", "requests", "errors", "req/s", "p50 ms", "p99 ms", "p99.9 ms", "max ms");
+        Result total = new Result();
+        for (Scenario scenario : scenarios) {
+            printRow(scenario.toString(), scenario.result, seconds);
+            total.add(scenario.result);
+        }
+        printRow("all", total, seconds);
+
+        Histogram pauses = gcMonitor.getPauses();
+        System.out.println();
+        System.out.printf(Locale.ROOT, "allocated   %,d MB (%.1f MB/s, %.2f MB per request)%n",
+                gcMonitor.getAllocatedBytes() / 1048576, gcMonitor.getAllocationRateMbPerSecond(),
+                total.latencies.getTotalCount() == 0 ? 0.0
+                        : gcMonitor.getAllocatedBytes() / 1048576.0 / total.latencies.getTotalCount());
+        System.out.printf(Locale.ROOT, "gc          %d collections, %d pauses, total %.1f ms (%.2f%% of time), "
+                        + "p99 %.1f ms, max %.1f ms%n",
+                gcMonitor.getCollections(), pauses.getTotalCount(), gcMonitor.getPauseMicros() / 1000.0,
+                gcMonitor.getPauseMicros() / 1e4 / seconds,
+                pauses.getValueAtPercentile(99) / 1000.0, pauses.getMaxValue() / 1000.0);
+        System.out.printf(Locale.ROOT, "peak heap   %d MB of %d MB max%n",
+                gcMonitor.getPeakUsedBytes() / 1048576, GcMonitor.heapMaxBytes() / 1048576);
+    }
+
+    private static void printRow(String name, Result result, double seconds) {
+        Histogram latencies = result.latencies;
+        System.out.printf(Locale.ROOT, "%-36s %8d %7d %8.1f %9.1f %9.1f %9.1f %9.1f%n",
+                name, latencies.getTotalCount(), result.errors, latencies.getTotalCount() / seconds,
+                latencies.getValueAtPercentile(50) / 1000.0, latencies.getValueAtPercentile(99) / 1000.0,
+                latencies.getValueAtPercentile(99.9) / 1000.0, latencies.getMaxValue() / 1000.0);
+    }
+
+    private static List<String> list(String value) {
+        return Arrays.stream(value.split(",")).map(String::trim).filter(item -> !item.isEmpty()).toList();
+    }
+
+    /**
+     * One kind of request: export format, template and row count. The body is serialized once.
+     */
+    private static final class Scenario {
+        private final String format;
+        private final String template;
+        private final int rows;
+        private final long seed;
+        private final Result result = new Result();
+        private URI uri;
+        private byte[] body;
+
+        Scenario(String format, String template, int rows, long seed) {
+            this.format = format;
+            this.template = template;
+            this.rows = rows;
+            this.seed = seed;
+        }
+
+        void prepare(URI baseUri, ObjectMapper objectMapper) throws Exception {
+            uri = baseUri.resolve("export-" + format + "-with-data");
+            ReportData reportData = new ReportData();
+            reportData.setJrxmlFileName(template);
+            reportData.setParameters(new LinkedHashMap<>());
+            reportData.setDataRecords(SavingsDataGenerator.generate(rows, seed));
+            body = objectMapper.writeValueAsBytes(reportData);
+        }
+
+        HttpRequest request(boolean gzip) {
+            HttpRequest.Builder builder = HttpRequest.newBuilder(uri)
+                    .timeout(Duration.ofMinutes(10))
+                    .header("Content-Type", "application/json")
+                    .POST(HttpRequest.BodyPublishers.ofByteArray(body));
+            if (gzip) {
+                builder.header("Accept-Encoding", "gzip");
+            }
+            return builder.build();
+        }
+
+        @Override
+        public String toString() {
+            return format + " " + template.replace(".jrxml", "") + " " + rows;
+        }
+    }
+
+    /**
+     * Latencies (microseconds) of successful requests and the number of failed ones
+     */
+    private static final class Result {
+        private final Histogram latencies = new Histogram(MAX_LATENCY_MICROS, 3);
+        private long errors;
+
+        void record(int status, long micros) {
+            if (status / 100 == 2) {
+                latencies.recordValue(Math.min(micros, MAX_LATENCY_MICROS));
+            } else {
+                errors++;
+            }
+        }
+
+        synchronized void add(Result other) {
+            latencies.add(other.latencies);
+            errors += other.errors;
+        }
+    }
+}
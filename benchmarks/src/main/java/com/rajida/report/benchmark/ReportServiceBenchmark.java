@@ -0,0 +1,97 @@
+package com.rajida.report.benchmark;
+
+import com.rajida.report.RajidaReportApplication;
+import com.rajida.report.model.ReportData;
+import com.rajida.report.service.FilledReport;
+import com.rajida.report.service.ReportService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.OutputStream;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End to end through ReportService as the export-*-with-data endpoints use it:
+ * compiled template cache, data conversion, fill on the render pool and export.
+ * Runs the application context without the web server.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class ReportServiceBenchmark {
+
+    @Param({"1000", "10000"})
+    private int rows;
+
+    private Path uploadDir;
+    private ConfigurableApplicationContext context;
+    private ReportService reportService;
+    private List<Map<String, Object>> dataRecords;
+
+    @Setup
+    public void setUp() throws Exception {
+        uploadDir = Files.createTempDirectory("benchmark-uploads");
+        Templates.copyTo(uploadDir);
+        context = new SpringApplicationBuilder(RajidaReportApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--upload.dir=" + uploadDir,
+                        "--report.cache.persist-compiled=false",
+                        "--logging.level.root=WARN");
+        reportService = context.getBean(ReportService.class);
+        dataRecords = SavingsDataGenerator.generate(rows, 42);
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        context.close();
+        FileSystemUtils.deleteRecursively(uploadDir);
+    }
+
+    @Benchmark
+    public void pdf() throws Exception {
+        try (FilledReport filledReport = reportService.fillReport(request())) {
+            reportService.writePdf(filledReport.getJasperPrint(), OutputStream.nullOutputStream());
+        }
+    }
+
+    @Benchmark
+    public void html() throws Exception {
+        try (FilledReport filledReport = reportService.fillReport(request())) {
+            reportService.writeHtml(filledReport.getJasperPrint(), Writer.nullWriter());
+        }
+    }
+
+    /**
+     * A new request per call, filling adds engine parameters to the parameter map
+     */
+    private ReportData request() {
+        ReportData reportData = new ReportData();
+        reportData.setJrxmlFileName(Templates.SAVINGS_PRODUCT_SUMMARY);
+        reportData.setParameters(new HashMap<>());
+        reportData.setDataRecords(dataRecords);
+        return reportData;
+    }
+}
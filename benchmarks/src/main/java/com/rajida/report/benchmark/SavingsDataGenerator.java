@@ -0,0 +1,100 @@
+package com.rajida.report.benchmark;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Synthetic dataRecords shaped like the rows of queries/Savings_Product_Sum_S.sql,
+ * as Jackson would deserialize them from a JSON request (Integer/Double/String values).
+ * Rows are ordered by product (COLUMN_10), with repeated institute/branch/product names.
+ */
+public final class SavingsDataGenerator {
+
+    private static final String[] BRANCHES = {"Colombo", "Kandy", "Galle", "Matara", "Kurunegala"};
+    private static final String[] PRODUCTS = {"Normal Savings", "Children Savings", "Senior Citizen Savings",
+            "Women Savings", "Fixed Deposit", "Special Savings", "Share Account", "Festival Savings"};
+    private static final String[] SINHALA_PRODUCTS = {"සාමාන්‍ය ඉතුරුම්", "ළමා ඉතුරුම්",
+            "ජ්‍යෙෂ්ඨ පුරවැසි ඉතුරුම්", "කාන්තා ඉතුරුම්", "ස්ථාවර තැන්පතු", "විශේෂ ඉතුරුම්", "කොටස් ගිණුම",
+            "උත්සව ඉතුරුම්"};
+    private static final String[] FIRST_NAMES = {"Nimal", "Kamala", "Sunil", "Chandani", "Ruwan", "Dilani"};
+    private static final String[] LAST_NAMES = {"Perera", "Silva", "Fernando", "Jayasinghe", "Bandara"};
+    private static final String[] SINHALA_NAMES = {"නිමල් පෙරේරා", "කමලා සිල්වා", "සුනිල් ප්‍රනාන්දු",
+            "චන්දනී ජයසිංහ", "රුවන් බණ්ඩාර"};
+
+    private SavingsDataGenerator() {
+    }
+
+    /**
+     * Generate rows; the same seed always gives the same data
+     */
+    public static List<Map<String, Object>> generate(int rowCount, long seed) {
+        Random random = new Random(seed);
+        List<Map<String, Object>> rows = new ArrayList<>(rowCount);
+        int rowsPerProduct = Math.max(1, (rowCount + PRODUCTS.length - 1) / PRODUCTS.length);
+
+        for (int i = 0; i < rowCount; i++) {
+            int product = Math.min(i / rowsPerProduct, PRODUCTS.length - 1);
+            int branch = random.nextInt(BRANCHES.length);
+            Map<String, Object> row = new HashMap<>();
+
+            row.put("id", i + 1);
+            row.put("pl_account_id", 100_000 + i);
+            row.put("branch_month_id", 202406);
+            // JSON numbers without a fraction arrive as Integer and need converting to Double
+            row.put("closing_balance", random.nextBoolean()
+                    ? (Object) (random.nextInt(500_000))
+                    : (Object) (random.nextInt(50_000_000) / 100.0));
+            row.put("status", 1);
+            row.put("COLUMN_6", 100_000 + i);
+            row.put("COLUMN_7", 50_000 + i);
+            row.put("ci_customer_id", 50_000 + i);
+            row.put("customer_number", "C" + (50_000 + i));
+            row.put("COLUMN_10", product + 1);
+            row.put("COLUMN_11", i + 1);
+            row.put("telephone", "011-2" + (100_000 + branch));
+            row.put("COLUMN_13", 1);
+            row.put("COLUMN_14", 1);
+            row.put("it_institute_id", 1);
+            row.put("ref_account_number", String.format("%02d-%03d-%07d", branch + 1, product + 1, i));
+            row.put("COLUMN_17", 7);
+            row.put("name", "Report User");
+            row.put("COLUMN_19", 1);
+            row.put("COLUMN_20", 42);
+            row.put("user_id", 7);
+            row.put("COLUMN_22", 1);
+            row.put("filter_1_text", "Branch");
+            row.put("filter_2_text", "Month");
+            row.put("filter_1_value", BRANCHES[branch]);
+            row.put("filter_2_value", "2024-06");
+            row.put("pl_account_category_id", 1);
+            row.put("COLUMN_28", 1);
+            row.put("COLUMN_29", branch + 1);
+            row.put("COLUMN_30", 1);
+            row.put("COLUMN_31", 1);
+            row.put("name_ln1", "Rajida Co-operative Society");
+            row.put("name_ln2", "රජිද සමුපකාර සමිතිය");
+            row.put("name_ln3", "Rajida Co-operative Society");
+            row.put("address_ln1", "No. 12");
+            row.put("address_ln3", "Sri Lanka");
+            row.put("address_ln2", "Main Street");
+            row.put("full_name_ln1", FIRST_NAMES[random.nextInt(FIRST_NAMES.length)] + " "
+                    + LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+            row.put("full_name_ln2", SINHALA_NAMES[random.nextInt(SINHALA_NAMES.length)]);
+            row.put("full_name_ln3", "");
+            row.put("COLUMN_41", PRODUCTS[product]);
+            row.put("COLUMN_42", SINHALA_PRODUCTS[product]);
+            row.put("COLUMN_43", PRODUCTS[product]);
+            row.put("COLUMN_44", BRANCHES[branch]);
+            row.put("COLUMN_45", BRANCHES[branch]);
+            row.put("COLUMN_46", BRANCHES[branch]);
+            row.put("COLUMN_47", 202406);
+            row.put("COLUMN_48", 1);
+            row.put("branch_id", branch + 1);
+            rows.add(row);
+        }
+        return rows;
+    }
+}
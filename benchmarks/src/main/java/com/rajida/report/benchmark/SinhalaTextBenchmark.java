@@ -0,0 +1,81 @@
+package com.rajida.report.benchmark;
+
+import com.rajida.report.service.FieldConverterPlan;
+import com.rajida.report.service.FontCache;
+import com.rajida.report.service.IndexedRecordDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of complex-script text: the same member list filled and exported with
+ * Sinhala (name_ln2 columns) or Latin (name_ln1 columns) text in Iskoola Pota.
+ * The fonts come from the service jar's font extension and are preloaded as at startup.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = "-Djava.awt.headless=true")
+public class SinhalaTextBenchmark {
+
+    @Param({"latin", "sinhala"})
+    private String script;
+
+    @Param({"1000"})
+    private int rows;
+
+    private JasperReport jasperReport;
+    private FieldConverterPlan plan;
+    private List<Object[]> memberRows;
+
+    @Setup
+    public void setUp() throws Exception {
+        new FontCache().load();
+        jasperReport = Templates.compile(Templates.SAVINGS_MEMBER_LIST_SI);
+        plan = FieldConverterPlan.of(jasperReport);
+
+        boolean sinhala = "sinhala".equals(script);
+        List<Map<String, Object>> memberRecords = new ArrayList<>(rows);
+        for (Map<String, Object> row : SavingsDataGenerator.generate(rows, 42)) {
+            Map<String, Object> member = new HashMap<>();
+            member.put("ref_account_number", row.get("ref_account_number"));
+            member.put("society_name", row.get(sinhala ? "name_ln2" : "name_ln1"));
+            member.put("member_name", row.get(sinhala ? "full_name_ln2" : "full_name_ln1"));
+            member.put("product_name", row.get(sinhala ? "COLUMN_42" : "COLUMN_41"));
+            member.put("closing_balance", row.get("closing_balance"));
+            memberRecords.add(member);
+        }
+        memberRows = plan.convert(memberRecords);
+    }
+
+    @Benchmark
+    public JasperPrint fill() throws JRException {
+        return JasperFillManager.fillReport(jasperReport, new HashMap<>(),
+                new IndexedRecordDataSource(plan, memberRows));
+    }
+
+    @Benchmark
+    public void fillAndExportPdf() throws JRException {
+        ExportBenchmark.exportPdf(fill());
+    }
+}
@@ -0,0 +1,47 @@
+package com.rajida.report.benchmark;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperReport;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Access to the sample templates checked in under src/main/resources/templates
+ */
+final class Templates {
+
+    static final String SAVINGS_PRODUCT_SUMMARY = "Savings_Product_Sum_S.jrxml";
+    static final String SAVINGS_MEMBER_LIST_SI = "Savings_Member_List_Si.jrxml";
+
+    private Templates() {
+    }
+
+    static byte[] read(String name) {
+        try (InputStream in = Templates.class.getResourceAsStream("/templates/" + name)) {
+            if (in == null) {
+                throw new IllegalArgumentException("Template not found: " + name);
+            }
+            return in.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    static JasperReport compile(String name) throws JRException {
+        return JasperCompileManager.compileReport(new java.io.ByteArrayInputStream(read(name)));
+    }
+
+    /**
+     * Copy the sample templates into an upload directory for the service
+     */
+    static void copyTo(Path uploadDir) throws IOException {
+        for (String name : new String[] {SAVINGS_PRODUCT_SUMMARY, SAVINGS_MEMBER_LIST_SI}) {
+            Files.write(uploadDir.resolve(name), read(name));
+        }
+    }
+}
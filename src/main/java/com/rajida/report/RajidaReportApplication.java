@@ -1,13 +1,58 @@
 package com.rajida.report;
 
+import com.rajida.report.service.LogContext;
+import com.rajida.report.service.ReportWarmupService;
+import com.zaxxer.hikari.HikariDataSource;
+import org.springframework.boot.ApplicationRunner;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnExpression;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceAutoConfiguration;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.core.task.TaskDecorator;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
-@SpringBootApplication
+// The query report DataSource is only created when a database URL is configured, see dataSource()
+@SpringBootApplication(exclude = DataSourceAutoConfiguration.class)
+@EnableConfigurationProperties(DataSourceProperties.class)
+@EnableScheduling
 public class RajidaReportApplication {
 
     public static void main(String[] args) {
         SpringApplication.run(RajidaReportApplication.class, args);
     }
 
+    /**
+     * Precompile templates and prime fonts at startup (report.warmup.enabled=true)
+     * The health endpoint reports not ready until this has finished
+     */
+    @Bean
+    @ConditionalOnProperty(name = "report.warmup.enabled", havingValue = "true")
+    public ApplicationRunner reportWarmup(ReportWarmupService reportWarmupService) {
+        return args -> reportWarmupService.warmUp();
+    }
+
+    /**
+     * Connection pool for reports filled from query files, only when spring.datasource.url
+     * is set (REPORT_DB_URL, or the h2 profile). Without it queryFile requests are rejected.
+     */
+    @Bean
+    @ConditionalOnExpression("!'${spring.datasource.url:}'.isBlank()")
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource dataSource(DataSourceProperties properties) {
+        return properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+    }
+
+    /**
+     * Streamed responses are written on async task threads, keep the request id in their logs
+     */
+    @Bean
+    public TaskDecorator logContextTaskDecorator() {
+        return LogContext::wrap;
+    }
+
 }
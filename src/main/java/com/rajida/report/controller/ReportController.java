@@ -1,28 +1,91 @@
 package com.rajida.report.controller;
 
 import com.rajida.report.model.ApiResponse;
+import com.rajida.report.model.BatchReportRequest;
+import com.rajida.report.model.CompileStatus;
 import com.rajida.report.model.ReportData;
+import com.rajida.report.model.ReportJob;
+import com.rajida.report.model.ReportPrint;
+import com.rajida.report.model.TemplateInfo;
+import com.rajida.report.service.BatchReportService;
+import com.rajida.report.service.CompiledReport;
+import com.rajida.report.service.ConversionErrors;
+import com.rajida.report.service.FilledReport;
+import com.rajida.report.service.OutputCache;
+import com.rajida.report.service.PrintTooLargeException;
+import com.rajida.report.service.RecordEncoding;
+import com.rajida.report.service.ReportMetrics;
+import com.rajida.report.service.ReportJobService;
+import com.rajida.report.service.ReportPrintService;
+import com.rajida.report.service.ReportResourceStore;
 import com.rajida.report.service.ReportService;
+import com.rajida.report.service.ReportWarmupService;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperPrint;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.Charset;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/api/reports")
-@CrossOrigin(origins = "*")
+@CrossOrigin(origins = "*", exposedHeaders = {CorrelationIdFilter.HEADER, "X-Page-Count", "X-Conversion-Errors",
+        "X-Conversion-Error-Fields", HttpHeaders.ETAG})
 public class ReportController {
 
+    private static final Logger log = LoggerFactory.getLogger(ReportController.class);
+
+    private static final String SMILE_VALUE = "application/x-jackson-smile";
+    private static final String CSV_VALUE = "text/csv";
+
     @Autowired
     private ReportService reportService;
 
+    @Autowired
+    private ReportWarmupService reportWarmupService;
+
+    @Autowired
+    private ReportJobService reportJobService;
+
+    @Autowired
+    private BatchReportService batchReportService;
+
+    @Autowired
+    private ReportPrintService reportPrintService;
+
+    @Autowired
+    private OutputCache outputCache;
+
+    @Autowired
+    private ReportMetrics reportMetrics;
+
+    @Autowired
+    private ReportResourceStore reportResourceStore;
+
     /**
      * Upload JRXML file
      * POST /api/reports/upload
@@ -40,6 +103,7 @@ public class ReportController {
             return ResponseEntity.badRequest()
                     .body(new ApiResponse(false, "Invalid file: " + e.getMessage()));
         } catch (Exception e) {
+            log.error("uploadJrxml failed: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ApiResponse(false, "Upload failed: " + e.getMessage()));
         }
@@ -55,11 +119,28 @@ public class ReportController {
             String[] files = reportService.getUploadedFiles();
             return ResponseEntity.ok(new ApiResponse(true, "Files retrieved successfully", files));
         } catch (Exception e) {
+            log.error("listJrxmlFiles failed: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ApiResponse(false, "Failed to retrieve files: " + e.getMessage()));
         }
     }
 
+    /**
+     * Get uploaded JRXML files with size, content hash and compile state
+     * GET /api/reports/templates
+     */
+    @GetMapping("/templates")
+    public ResponseEntity<ApiResponse> listTemplates() {
+        try {
+            List<TemplateInfo> templates = reportService.getTemplates();
+            return ResponseEntity.ok(new ApiResponse(true, "Templates retrieved successfully", templates));
+        } catch (Exception e) {
+            log.error("listTemplates failed: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponse(false, "Failed to retrieve templates: " + e.getMessage()));
+        }
+    }
+
     /**
      * Delete JRXML file
      * DELETE /api/reports/delete/{fileName}
@@ -74,30 +155,56 @@ public class ReportController {
                 return ResponseEntity.notFound().build();
             }
         } catch (Exception e) {
+            log.error("deleteJrxml failed: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ApiResponse(false, "Delete failed: " + e.getMessage()));
         }
     }
 
+    /**
+     * Get compile status of an uploaded JRXML file
+     * GET /api/reports/{fileName}/status
+     */
+    @GetMapping("/{fileName}/status")
+    public ResponseEntity<ApiResponse> compileStatus(@PathVariable String fileName) {
+        try {
+            CompileStatus status = reportService.getCompileStatus(fileName);
+            return ResponseEntity.ok(new ApiResponse(true, "Compile status retrieved successfully", status));
+        } catch (FileNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            log.error("compileStatus failed: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponse(false, "Failed to retrieve compile status: " + e.getMessage()));
+        }
+    }
+
     /**
      * Export JRXML to PDF with data
      * POST /api/reports/export-pdf-with-data
      */
     @PostMapping("/export-pdf-with-data")
-    public ResponseEntity<?> exportToPdfWithData(@RequestBody ReportData reportData) {
+    public ResponseEntity<?> exportToPdfWithData(@RequestBody ReportData reportData,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            byte[] pdfBytes = reportService.exportToPdfWithData(
-                    reportData.getJrxmlFileName(),
-                    reportData.getParameters() != null ? reportData.getParameters() : new HashMap<>(),
-                    reportData.getDataRecords());
+            // Identical requests are answered from the output cache (or with 304)
+            String cacheKey = outputCache.key(reportData, "pdf");
+            ResponseEntity<?> cached = fromOutputCache(cacheKey, ifNoneMatch, MediaType.APPLICATION_PDF, "report.pdf");
+            if (cached != null) {
+                return cached;
+            }
 
-            return ResponseEntity.ok()
-                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"report.pdf\"")
-                    .contentType(MediaType.APPLICATION_PDF)
-                    .body(pdfBytes);
+            // Fill before streaming so errors can still be reported with a status code
+            FilledReport filledReport = reportService.fillReport(reportData);
+
+            return pdfResponse(filledReport, cacheKey);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, "Invalid request: " + e.getMessage()));
         } catch (FileNotFoundException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
+            log.error("exportToPdfWithData failed: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ApiResponse(false, "PDF export failed: " + e.getMessage()));
         }
@@ -108,30 +215,500 @@ public class ReportController {
      * POST /api/reports/export-html-with-data
      */
     @PostMapping("/export-html-with-data")
-    public ResponseEntity<?> exportToHtmlWithData(@RequestBody ReportData reportData) {
+    public ResponseEntity<?> exportToHtmlWithData(@RequestBody ReportData reportData,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
         try {
-            String htmlContent = reportService.exportToHtmlWithData(
-                    reportData.getJrxmlFileName(),
-                    reportData.getParameters() != null ? reportData.getParameters() : new HashMap<>(),
-                    reportData.getDataRecords());
+            // Identical requests are answered from the output cache (or with 304)
+            String cacheKey = outputCache.key(reportData, "html");
+            ResponseEntity<?> cached = fromOutputCache(cacheKey, ifNoneMatch,
+                    new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8), null);
+            if (cached != null) {
+                return cached;
+            }
 
-            return ResponseEntity.ok()
-                    .contentType(MediaType.TEXT_HTML)
-                    .body(htmlContent);
+            // Fill before streaming so errors can still be reported with a status code
+            FilledReport filledReport = reportData.getQueryFile() != null
+                    ? reportService.fillReport(reportData)
+                    : reportService.fillHtmlReport(
+                            reportData.getJrxmlFileName(),
+                            reportData.getParameters() != null ? reportData.getParameters() : new HashMap<>(),
+                            reportData.getDataRecords(),
+                            reportData.getVirtualizer(),
+                            reportData.getPartitionBy());
+
+            return htmlResponse(filledReport, cacheKey);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, "Invalid request: " + e.getMessage()));
+        } catch (FileNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            log.error("exportToHtmlWithData failed: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponse(false, "HTML export failed: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Export JRXML to PDF with data read from a streamed request body
+     * POST /api/reports/export-pdf-stream
+     * Same body as export-pdf-with-data (JSON, Smile or CBOR); jrxmlFileName and parameters must precede
+     * dataRecords. CSV bodies take jrxmlFileName, parameters and virtualizer as query parameters.
+     */
+    @PostMapping(value = "/export-pdf-stream", consumes = {MediaType.APPLICATION_JSON_VALUE, SMILE_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, CSV_VALUE})
+    public ResponseEntity<?> exportToPdfFromStream(InputStream requestBody,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            @RequestParam(required = false) String jrxmlFileName,
+            @RequestParam(required = false) String parameters,
+            @RequestParam(required = false) String virtualizer) {
+        try {
+            return pdfResponse(fillFromStream(requestBody, contentType, jrxmlFileName, parameters, virtualizer),
+                    null);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, "Invalid request: " + e.getMessage()));
         } catch (FileNotFoundException e) {
             return ResponseEntity.notFound().build();
         } catch (Exception e) {
+            log.error("exportToPdfFromStream failed: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponse(false, "PDF export failed: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Export JRXML to HTML with data read from a streamed request body
+     * POST /api/reports/export-html-stream
+     * Same bodies as export-pdf-stream
+     */
+    @PostMapping(value = "/export-html-stream", consumes = {MediaType.APPLICATION_JSON_VALUE, SMILE_VALUE,
+            MediaType.APPLICATION_CBOR_VALUE, CSV_VALUE})
+    public ResponseEntity<?> exportToHtmlFromStream(InputStream requestBody,
+            @RequestHeader(value = HttpHeaders.CONTENT_TYPE, required = false) String contentType,
+            @RequestParam(required = false) String jrxmlFileName,
+            @RequestParam(required = false) String parameters,
+            @RequestParam(required = false) String virtualizer) {
+        try {
+            return htmlResponse(fillFromStream(requestBody, contentType, jrxmlFileName, parameters, virtualizer),
+                    null);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, "Invalid request: " + e.getMessage()));
+        } catch (FileNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            log.error("exportToHtmlFromStream failed: {}", e.getMessage(), e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
                     .body(new ApiResponse(false, "HTML export failed: " + e.getMessage()));
         }
     }
 
+    /**
+     * Fill from a streamed body: ReportData in JSON, Smile or CBOR, or CSV rows with the
+     * rest of the request in query parameters (parameters as a JSON object)
+     */
+    private FilledReport fillFromStream(InputStream requestBody, String contentType, String jrxmlFileName,
+            String parameters, String virtualizer) throws Exception {
+        RecordEncoding encoding = RecordEncoding.of(contentType);
+        if (encoding != RecordEncoding.CSV) {
+            return reportService.fillReportFromStream(requestBody, encoding);
+        }
+
+        ReportData reportData = new ReportData();
+        reportData.setJrxmlFileName(jrxmlFileName);
+        reportData.setParameters(reportService.parseParameters(parameters));
+        reportData.setVirtualizer(virtualizer);
+        Charset charset = MediaType.parseMediaType(contentType).getCharset();
+        return reportService.fillReportFromCsv(
+                new InputStreamReader(requestBody, charset != null ? charset : StandardCharsets.UTF_8), reportData);
+    }
+
+    /**
+     * Render many reports from one template in a single call
+     * POST /api/reports/batch
+     * Returns a ZIP of PDFs ("output": "zip", default) or one merged PDF ("output": "merged")
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<?> exportBatch(@RequestBody BatchReportRequest batchRequest) {
+        try {
+            // Validate and compile before streaming so errors can still be reported with a status code
+            CompiledReport compiledReport = batchReportService.prepare(batchRequest);
+
+            if (BatchReportService.OUTPUT_MERGED.equals(batchReportService.getOutput(batchRequest))) {
+                StreamingResponseBody body = outputStream -> {
+                    try {
+                        batchReportService.writeMergedPdf(batchRequest, compiledReport, outputStream);
+                    } catch (JRException e) {
+                        throw new IOException("Batch export failed: " + e.getMessage(), e);
+                    }
+                };
+                return ResponseEntity.ok()
+                        .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"reports.pdf\"")
+                        .contentType(MediaType.APPLICATION_PDF)
+                        .body(body);
+            }
+
+            StreamingResponseBody body = outputStream -> {
+                try {
+                    batchReportService.writeZip(batchRequest, compiledReport, outputStream);
+                } catch (JRException e) {
+                    throw new IOException("Batch export failed: " + e.getMessage(), e);
+                }
+            };
+            return ResponseEntity.ok()
+                    .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"reports.zip\"")
+                    .contentType(MediaType.parseMediaType("application/zip"))
+                    .body(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, "Invalid request: " + e.getMessage()));
+        } catch (FileNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            log.error("exportBatch failed: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponse(false, "Batch export failed: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Fill a report once and cache it for export in several formats
+     * POST /api/reports/prints
+     * Returns a printId for GET /api/reports/prints/{printId}/{format}, or 413 if the
+     * filled report is too large to cache
+     */
+    @PostMapping("/prints")
+    public ResponseEntity<ApiResponse> createPrint(@RequestBody ReportData reportData) {
+        try {
+            ReportPrint print = reportPrintService.createPrint(reportData);
+            return ResponseEntity.ok(new ApiResponse(true, "Report filled successfully", print));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, "Invalid request: " + e.getMessage()));
+        } catch (PrintTooLargeException e) {
+            return ResponseEntity.status(HttpStatus.PAYLOAD_TOO_LARGE)
+                    .body(new ApiResponse(false, e.getMessage()));
+        } catch (FileNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            log.error("createPrint failed: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponse(false, "Report fill failed: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Get a cached report print
+     * GET /api/reports/prints/{printId}
+     */
+    @GetMapping("/prints/{printId}")
+    public ResponseEntity<ApiResponse> getPrint(@PathVariable String printId) {
+        ReportPrint print = reportPrintService.getPrint(printId);
+        if (print == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(new ApiResponse(true, "Report print retrieved successfully", print));
+    }
+
+    /**
+     * Get the page count of a cached report print
+     * GET /api/reports/prints/{printId}/pages
+     */
+    @GetMapping("/prints/{printId}/pages")
+    public ResponseEntity<ApiResponse> printPageCount(@PathVariable String printId) {
+        ReportPrint print = reportPrintService.getPrint(printId);
+        if (print == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Map<String, Object> data = new HashMap<>();
+        data.put("printId", printId);
+        data.put("pageCount", print.getPageCount());
+        return ResponseEntity.ok(new ApiResponse(true, "Page count retrieved successfully", data));
+    }
+
+    /**
+     * Export a cached report print without filling it again
+     * GET /api/reports/prints/{printId}/{format} (pdf, html, xlsx or csv)
+     * HTML can be limited to one page (?page=N) or a page range (?from=N&to=M), pages start at 1
+     */
+    @GetMapping("/prints/{printId}/{format}")
+    public ResponseEntity<?> exportPrint(@PathVariable String printId, @PathVariable String format,
+            @RequestParam(required = false) Integer page,
+            @RequestParam(required = false) Integer from,
+            @RequestParam(required = false) Integer to) {
+        try {
+            String exportFormat = ReportPrintService.checkFormat(format);
+            boolean paged = page != null || from != null || to != null;
+            if (paged && !ReportPrintService.HTML.equals(exportFormat)) {
+                throw new IllegalArgumentException("Page ranges are only supported for html");
+            }
+            if (page != null && (from != null || to != null)) {
+                throw new IllegalArgumentException("Use either page or from/to");
+            }
+            JasperPrint jasperPrint = reportPrintService.loadPrint(printId);
+            int pageCount = jasperPrint.getPages().size();
+
+            StreamingResponseBody body;
+            if (paged) {
+                int fromPage = page != null ? page : from != null ? from : 1;
+                int toPage = page != null ? page : to != null ? to : pageCount;
+                ReportPrintService.checkPageRange(fromPage, toPage, pageCount);
+                body = outputStream -> {
+                    ReportMetrics.ResponseMeter meter = reportMetrics.meterResponse(
+                            ReportMetrics.template(jasperPrint), exportFormat, outputStream);
+                    try {
+                        reportPrintService.exportHtmlPages(jasperPrint, fromPage, toPage, meter);
+                    } catch (JRException e) {
+                        throw new IOException("Export failed: " + e.getMessage(), e);
+                    }
+                    meter.finish();
+                };
+            } else {
+                body = outputStream -> {
+                    ReportMetrics.ResponseMeter meter = reportMetrics.meterResponse(
+                            ReportMetrics.template(jasperPrint), exportFormat, outputStream);
+                    try {
+                        reportPrintService.export(jasperPrint, exportFormat, meter);
+                    } catch (JRException e) {
+                        throw new IOException("Export failed: " + e.getMessage(), e);
+                    }
+                    meter.finish();
+                };
+            }
+
+            ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                    .header("X-Page-Count", String.valueOf(pageCount));
+            switch (exportFormat) {
+                case ReportPrintService.PDF:
+                    response.contentType(MediaType.APPLICATION_PDF)
+                            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"report.pdf\"");
+                    break;
+                case ReportPrintService.XLSX:
+                    response.contentType(MediaType.parseMediaType(
+                                    "application/vnd.openxmlformats-officedocument.spreadsheetml.sheet"))
+                            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"report.xlsx\"");
+                    break;
+                case ReportPrintService.CSV:
+                    response.contentType(new MediaType("text", "csv", StandardCharsets.UTF_8))
+                            .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"report.csv\"");
+                    break;
+                default:
+                    response.contentType(new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8));
+            }
+            return response.body(body);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, "Invalid request: " + e.getMessage()));
+        } catch (FileNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        } catch (Exception e) {
+            log.error("exportPrint failed: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponse(false, "Export failed: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Submit a report export to run in the background
+     * POST /api/reports/jobs
+     * Returns 429 when the job queue is full
+     */
+    @PostMapping("/jobs")
+    public ResponseEntity<ApiResponse> submitJob(@RequestBody ReportData reportData) {
+        try {
+            ReportJob job = reportJobService.submit(reportData);
+            return ResponseEntity.status(HttpStatus.ACCEPTED)
+                    .body(new ApiResponse(true, "Job submitted", job));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest()
+                    .body(new ApiResponse(false, "Invalid request: " + e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "30")
+                    .body(new ApiResponse(false, e.getMessage()));
+        } catch (Exception e) {
+            log.error("submitJob failed: {}", e.getMessage(), e);
+            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
+                    .body(new ApiResponse(false, "Job submission failed: " + e.getMessage()));
+        }
+    }
+
+    /**
+     * Get status of a report job
+     * GET /api/reports/jobs/{id}
+     */
+    @GetMapping("/jobs/{id}")
+    public ResponseEntity<ApiResponse> jobStatus(@PathVariable String id) {
+        ReportJob job = reportJobService.getJob(id);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(new ApiResponse(true, "Job retrieved successfully", job));
+    }
+
+    /**
+     * Download the result of a completed report job
+     * GET /api/reports/jobs/{id}/result
+     * Returns 409 while the job is queued or running, or if it failed
+     */
+    @GetMapping("/jobs/{id}/result")
+    public ResponseEntity<?> jobResult(@PathVariable String id) {
+        ReportJob job = reportJobService.getJob(id);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        Path result = reportJobService.getResult(id);
+        if (result == null) {
+            return ResponseEntity.status(HttpStatus.CONFLICT)
+                    .body(new ApiResponse(false, "Job is " + job.getStatus(), job));
+        }
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(reportJobService.getContentType(id)));
+        if ("pdf".equals(job.getExportFormat())) {
+            response.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"report.pdf\"");
+        }
+        return response.body(new FileSystemResource(result));
+    }
+
+    /**
+     * Image of an HTML export, by content hash
+     * GET /api/reports/resources/{name}
+     * Names never change content, so responses may be cached by browsers and proxies indefinitely
+     */
+    @GetMapping("/resources/{name}")
+    public ResponseEntity<?> resource(@PathVariable String name,
+            @RequestHeader(value = HttpHeaders.IF_NONE_MATCH, required = false) String ifNoneMatch) {
+        try {
+            Path path = reportResourceStore.getPath(name);
+            String etag = "\"" + name + "\"";
+            CacheControl cacheControl = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+            if (OutputCache.matches(ifNoneMatch, etag)) {
+                return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).cacheControl(cacheControl).build();
+            }
+            return ResponseEntity.ok()
+                    .contentType(MediaTypeFactory.getMediaType(name).orElse(MediaType.APPLICATION_OCTET_STREAM))
+                    .eTag(etag)
+                    .cacheControl(cacheControl)
+                    .body(new FileSystemResource(path));
+        } catch (FileNotFoundException e) {
+            return ResponseEntity.notFound().build();
+        }
+    }
+
     /**
      * Health check endpoint
      * GET /api/reports/health
      */
     @GetMapping("/health")
     public ResponseEntity<ApiResponse> health() {
+        if (!reportWarmupService.isReady()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(new ApiResponse(false, "Service is warming up", reportWarmupService.getTemplateTimings()));
+        }
         return ResponseEntity.ok(new ApiResponse(true, "Service is running"));
     }
+
+    /**
+     * Answer a request from the output cache: 304 if the client already has the
+     * output, the cached output if present, or null if it has to be rendered
+     */
+    private ResponseEntity<?> fromOutputCache(String cacheKey, String ifNoneMatch, MediaType contentType,
+            String attachmentName) {
+        if (cacheKey == null) {
+            return null;
+        }
+        String etag = OutputCache.etag(cacheKey);
+        if (OutputCache.matches(ifNoneMatch, etag)) {
+            return ResponseEntity.status(HttpStatus.NOT_MODIFIED).eTag(etag).build();
+        }
+        byte[] output = outputCache.get(cacheKey);
+        reportMetrics.recordCacheLookup("output", output != null);
+        if (output == null) {
+            return null;
+        }
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok().eTag(etag).contentType(contentType);
+        if (attachmentName != null) {
+            response.header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + attachmentName + "\"");
+        }
+        return response.body(output);
+    }
+
+    /**
+     * PDF is written straight to the response (chunked), never buffered in memory.
+     * With a cache key the output is also kept in the output cache (if small enough).
+     */
+    private ResponseEntity<StreamingResponseBody> pdfResponse(FilledReport filledReport, String requestCacheKey) {
+        // Responses with conversion errors are not cached, so the errors are reported every time
+        String cacheKey = filledReport.hasConversionErrors() ? null : requestCacheKey;
+        StreamingResponseBody body = outputStream -> {
+            ReportMetrics.ResponseMeter meter = reportMetrics.meterResponse(
+                    ReportMetrics.template(filledReport.getJasperPrint()), "pdf", outputStream);
+            OutputCache.Capture capture = cacheKey != null ? outputCache.capture(cacheKey, meter) : null;
+            try (filledReport) {
+                reportService.writePdf(filledReport.getJasperPrint(), capture != null ? capture : meter);
+            } catch (JRException e) {
+                throw new IOException("PDF export failed: " + e.getMessage(), e);
+            }
+            if (capture != null) {
+                capture.commit();
+            }
+            meter.finish();
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"report.pdf\"")
+                .contentType(MediaType.APPLICATION_PDF);
+        if (cacheKey != null) {
+            response.eTag(OutputCache.etag(cacheKey));
+        }
+        addConversionErrorHeaders(response, filledReport);
+        return response.body(body);
+    }
+
+    /**
+     * HTML is written straight to the response (chunked), never buffered in memory.
+     * With a cache key the output is also kept in the output cache (if small enough).
+     */
+    private ResponseEntity<StreamingResponseBody> htmlResponse(FilledReport filledReport, String requestCacheKey) {
+        // Responses with conversion errors are not cached, so the errors are reported every time
+        String cacheKey = filledReport.hasConversionErrors() ? null : requestCacheKey;
+        StreamingResponseBody body = outputStream -> {
+            ReportMetrics.ResponseMeter meter = reportMetrics.meterResponse(
+                    ReportMetrics.template(filledReport.getJasperPrint()), "html", outputStream);
+            OutputCache.Capture capture = cacheKey != null ? outputCache.capture(cacheKey, meter) : null;
+            Writer writer = new OutputStreamWriter(capture != null ? capture : meter, StandardCharsets.UTF_8);
+            try (filledReport) {
+                reportService.writeHtml(filledReport.getJasperPrint(), writer);
+            } catch (JRException e) {
+                throw new IOException("HTML export failed: " + e.getMessage(), e);
+            }
+            writer.flush();
+            if (capture != null) {
+                capture.commit();
+            }
+            meter.finish();
+        };
+
+        ResponseEntity.BodyBuilder response = ResponseEntity.ok()
+                .contentType(new MediaType(MediaType.TEXT_HTML, StandardCharsets.UTF_8));
+        if (cacheKey != null) {
+            response.eTag(OutputCache.etag(cacheKey));
+        }
+        addConversionErrorHeaders(response, filledReport);
+        return response.body(body);
+    }
+
+    /**
+     * Report values that could not be converted: X-Conversion-Errors (total) and
+     * X-Conversion-Error-Fields (count per field); samples are in the server log
+     */
+    private static void addConversionErrorHeaders(ResponseEntity.BodyBuilder response, FilledReport filledReport) {
+        if (filledReport.hasConversionErrors()) {
+            ConversionErrors errors = filledReport.getConversionErrors();
+            response.header("X-Conversion-Errors", String.valueOf(errors.getTotal()));
+            response.header("X-Conversion-Error-Fields", errors.fieldCounts());
+        }
+    }
 }
@@ -0,0 +1,40 @@
+package com.rajida.report.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * One report of a batch export: its own parameters and data rows
+ */
+public class BatchReportItem {
+    private String name; // ZIP entry name (optional, default report-00001.pdf, ...)
+    private Map<String, Object> parameters;
+    private List<Map<String, Object>> dataRecords;
+
+    public BatchReportItem() {
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public Map<String, Object> getParameters() {
+        return parameters;
+    }
+
+    public void setParameters(Map<String, Object> parameters) {
+        this.parameters = parameters;
+    }
+
+    public List<Map<String, Object>> getDataRecords() {
+        return dataRecords;
+    }
+
+    public void setDataRecords(List<Map<String, Object>> dataRecords) {
+        this.dataRecords = dataRecords;
+    }
+}
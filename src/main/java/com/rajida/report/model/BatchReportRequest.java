@@ -0,0 +1,48 @@
+package com.rajida.report.model;
+
+import java.util.List;
+
+/**
+ * DTO for rendering many reports from one template in a single call
+ */
+public class BatchReportRequest {
+    private String jrxmlFileName;
+    private String output; // "zip" (default, one PDF per report) or "merged" (single PDF)
+    private String virtualizer; // "auto" (default), "none", "file" or "gzip"
+    private List<BatchReportItem> reports;
+
+    public BatchReportRequest() {
+    }
+
+    public String getJrxmlFileName() {
+        return jrxmlFileName;
+    }
+
+    public void setJrxmlFileName(String jrxmlFileName) {
+        this.jrxmlFileName = jrxmlFileName;
+    }
+
+    public String getOutput() {
+        return output;
+    }
+
+    public void setOutput(String output) {
+        this.output = output;
+    }
+
+    public String getVirtualizer() {
+        return virtualizer;
+    }
+
+    public void setVirtualizer(String virtualizer) {
+        this.virtualizer = virtualizer;
+    }
+
+    public List<BatchReportItem> getReports() {
+        return reports;
+    }
+
+    public void setReports(List<BatchReportItem> reports) {
+        this.reports = reports;
+    }
+}
@@ -0,0 +1,86 @@
+package com.rajida.report.model;
+
+import java.util.List;
+
+/**
+ * DTO describing the compilation state of an uploaded JRXML template
+ */
+public class CompileStatus {
+
+    public enum State {
+        NOT_COMPILED, PENDING, COMPILING, COMPILED, FAILED
+    }
+
+    private String fileName;
+    private State state;
+    private String contentHash; // SHA-256 of the compiled JRXML
+    private Long compileTimeMillis; // 0 when loaded from a persisted .jasper
+    private String error;
+    private List<String> missingFonts; // fonts of the template that render with a fallback font
+    private long updatedAt; // epoch millis of the last state change
+
+    public CompileStatus() {
+    }
+
+    public CompileStatus(String fileName, State state) {
+        this.fileName = fileName;
+        this.state = state;
+        this.updatedAt = System.currentTimeMillis();
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public State getState() {
+        return state;
+    }
+
+    public void setState(State state) {
+        this.state = state;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public Long getCompileTimeMillis() {
+        return compileTimeMillis;
+    }
+
+    public void setCompileTimeMillis(Long compileTimeMillis) {
+        this.compileTimeMillis = compileTimeMillis;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public List<String> getMissingFonts() {
+        return missingFonts;
+    }
+
+    public void setMissingFonts(List<String> missingFonts) {
+        this.missingFonts = missingFonts;
+    }
+
+    public long getUpdatedAt() {
+        return updatedAt;
+    }
+
+    public void setUpdatedAt(long updatedAt) {
+        this.updatedAt = updatedAt;
+    }
+}
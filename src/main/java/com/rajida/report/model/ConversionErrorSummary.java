@@ -0,0 +1,41 @@
+package com.rajida.report.model;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * DTO summarizing the dataRecords values that could not be converted to their
+ * report field types (they are filled as sent)
+ */
+public class ConversionErrorSummary {
+    private long total;
+    private Map<String, Long> fields; // Failed values per field
+    private List<String> samples; // First failed values, "field: value (reason)"
+
+    public ConversionErrorSummary() {
+    }
+
+    public long getTotal() {
+        return total;
+    }
+
+    public void setTotal(long total) {
+        this.total = total;
+    }
+
+    public Map<String, Long> getFields() {
+        return fields;
+    }
+
+    public void setFields(Map<String, Long> fields) {
+        this.fields = fields;
+    }
+
+    public List<String> getSamples() {
+        return samples;
+    }
+
+    public void setSamples(List<String> samples) {
+        this.samples = samples;
+    }
+}
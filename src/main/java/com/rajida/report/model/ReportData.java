@@ -12,6 +12,10 @@ public class ReportData {
     private Map<String, Object> parameters; // Report parameters (title, company, etc.)
     private List<Map<String, Object>> dataRecords; // Report data/rows
     private String exportFormat; // "pdf" or "html"
+    private String virtualizer; // "auto" (default), "none", "file" or "gzip"
+    private Integer priority; // Async jobs only, higher runs first (default 0)
+    private String queryFile; // SQL file in report.queries.dir, rows are queried instead of sent in dataRecords
+    private String partitionBy; // Field the dataRecords are ordered by, large reports are filled in parallel per group
 
     public ReportData() {
     }
@@ -55,4 +59,36 @@ public class ReportData {
     public void setExportFormat(String exportFormat) {
         this.exportFormat = exportFormat;
     }
+
+    public String getVirtualizer() {
+        return virtualizer;
+    }
+
+    public void setVirtualizer(String virtualizer) {
+        this.virtualizer = virtualizer;
+    }
+
+    public Integer getPriority() {
+        return priority;
+    }
+
+    public void setPriority(Integer priority) {
+        this.priority = priority;
+    }
+
+    public String getQueryFile() {
+        return queryFile;
+    }
+
+    public void setQueryFile(String queryFile) {
+        this.queryFile = queryFile;
+    }
+
+    public String getPartitionBy() {
+        return partitionBy;
+    }
+
+    public void setPartitionBy(String partitionBy) {
+        this.partitionBy = partitionBy;
+    }
 }
@@ -0,0 +1,114 @@
+package com.rajida.report.model;
+
+/**
+ * DTO describing an asynchronous report job
+ */
+public class ReportJob {
+
+    public enum Status {
+        QUEUED, RUNNING, COMPLETED, FAILED
+    }
+
+    private String id;
+    private Status status;
+    private String jrxmlFileName;
+    private String exportFormat; // "pdf" or "html"
+    private int priority; // higher runs first
+    private long submittedAt; // epoch millis
+    private Long startedAt;
+    private Long completedAt;
+    private Long resultSize; // bytes, once completed
+    private String error;
+    private ConversionErrorSummary conversionErrors; // Null if all values converted
+
+    public ReportJob() {
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public Status getStatus() {
+        return status;
+    }
+
+    public void setStatus(Status status) {
+        this.status = status;
+    }
+
+    public String getJrxmlFileName() {
+        return jrxmlFileName;
+    }
+
+    public void setJrxmlFileName(String jrxmlFileName) {
+        this.jrxmlFileName = jrxmlFileName;
+    }
+
+    public String getExportFormat() {
+        return exportFormat;
+    }
+
+    public void setExportFormat(String exportFormat) {
+        this.exportFormat = exportFormat;
+    }
+
+    public int getPriority() {
+        return priority;
+    }
+
+    public void setPriority(int priority) {
+        this.priority = priority;
+    }
+
+    public long getSubmittedAt() {
+        return submittedAt;
+    }
+
+    public void setSubmittedAt(long submittedAt) {
+        this.submittedAt = submittedAt;
+    }
+
+    public Long getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(Long startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public Long getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(Long completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    public Long getResultSize() {
+        return resultSize;
+    }
+
+    public void setResultSize(Long resultSize) {
+        this.resultSize = resultSize;
+    }
+
+    public String getError() {
+        return error;
+    }
+
+    public void setError(String error) {
+        this.error = error;
+    }
+
+    public ConversionErrorSummary getConversionErrors() {
+        return conversionErrors;
+    }
+
+    public void setConversionErrors(ConversionErrorSummary conversionErrors) {
+        this.conversionErrors = conversionErrors;
+    }
+}
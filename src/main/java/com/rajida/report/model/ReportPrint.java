@@ -0,0 +1,73 @@
+package com.rajida.report.model;
+
+/**
+ * DTO describing a filled report cached for export in several formats
+ */
+public class ReportPrint {
+    private String printId;
+    private String jrxmlFileName;
+    private int pageCount;
+    private long size; // Compressed size in the cache, bytes
+    private long createdAt;
+    private boolean cached; // True if an identical request had already been filled
+    private ConversionErrorSummary conversionErrors; // Null if all values converted
+
+    public ReportPrint() {
+    }
+
+    public String getPrintId() {
+        return printId;
+    }
+
+    public void setPrintId(String printId) {
+        this.printId = printId;
+    }
+
+    public String getJrxmlFileName() {
+        return jrxmlFileName;
+    }
+
+    public void setJrxmlFileName(String jrxmlFileName) {
+        this.jrxmlFileName = jrxmlFileName;
+    }
+
+    public int getPageCount() {
+        return pageCount;
+    }
+
+    public void setPageCount(int pageCount) {
+        this.pageCount = pageCount;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public long getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(long createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public boolean isCached() {
+        return cached;
+    }
+
+    public void setCached(boolean cached) {
+        this.cached = cached;
+    }
+
+    public ConversionErrorSummary getConversionErrors() {
+        return conversionErrors;
+    }
+
+    public void setConversionErrors(ConversionErrorSummary conversionErrors) {
+        this.conversionErrors = conversionErrors;
+    }
+}
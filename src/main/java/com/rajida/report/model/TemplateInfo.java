@@ -0,0 +1,63 @@
+package com.rajida.report.model;
+
+/**
+ * DTO describing an uploaded JRXML template as held by the template index
+ */
+public class TemplateInfo {
+
+    private String fileName;
+    private long size;
+    private long lastModified; // epoch millis
+    private String contentHash; // SHA-256 of the JRXML
+    private CompileStatus.State state;
+
+    public TemplateInfo() {
+    }
+
+    public TemplateInfo(String fileName, long size, long lastModified, String contentHash) {
+        this.fileName = fileName;
+        this.size = size;
+        this.lastModified = lastModified;
+        this.contentHash = contentHash;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public void setSize(long size) {
+        this.size = size;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    public void setLastModified(long lastModified) {
+        this.lastModified = lastModified;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public void setContentHash(String contentHash) {
+        this.contentHash = contentHash;
+    }
+
+    public CompileStatus.State getState() {
+        return state;
+    }
+
+    public void setState(CompileStatus.State state) {
+        this.state = state;
+    }
+}
@@ -0,0 +1,299 @@
+package com.rajida.report.service;
+
+import com.rajida.report.model.BatchReportItem;
+import com.rajida.report.model.BatchReportRequest;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRRuntimeException;
+import net.sf.jasperreports.export.ExporterInput;
+import net.sf.jasperreports.export.ExporterInputItem;
+import net.sf.jasperreports.export.SimpleExporterInputItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractList;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Renders many reports from one compiled template in a single call.
+ * Reports are filled in parallel on the render pool, a bounded number ahead of
+ * the one being written, and streamed out in request order.
+ */
+@Service
+public class BatchReportService {
+
+    private static final Logger log = LoggerFactory.getLogger(BatchReportService.class);
+
+    public static final String OUTPUT_ZIP = "zip";
+    public static final String OUTPUT_MERGED = "merged";
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private CompiledReportCache compiledReportCache;
+
+    @Autowired
+    private RenderExecutor renderExecutor;
+
+    @Value("${report.batch.max-reports:10000}")
+    private int maxReports;
+
+    /**
+     * Check a batch request and resolve its compiled template before anything is streamed
+     */
+    public CompiledReport prepare(BatchReportRequest request) throws IOException, JRException {
+        if (request.getJrxmlFileName() == null) {
+            throw new IllegalArgumentException("jrxmlFileName is required");
+        }
+        if (request.getReports() == null || request.getReports().isEmpty()) {
+            throw new IllegalArgumentException("reports must contain at least one entry");
+        }
+        if (request.getReports().size() > maxReports) {
+            throw new IllegalArgumentException("A batch may contain at most " + maxReports + " reports");
+        }
+        String output = getOutput(request);
+        if (!OUTPUT_ZIP.equals(output) && !OUTPUT_MERGED.equals(output)) {
+            throw new IllegalArgumentException("Unsupported batch output: " + request.getOutput());
+        }
+        ReportVirtualizerFactory.checkMode(request.getVirtualizer());
+
+        return compiledReportCache.get(request.getJrxmlFileName());
+    }
+
+    /**
+     * Normalized output type of a batch request, zip by default
+     */
+    public String getOutput(BatchReportRequest request) {
+        return request.getOutput() != null ? request.getOutput().toLowerCase(Locale.ROOT) : OUTPUT_ZIP;
+    }
+
+    /**
+     * Write one PDF per report into a ZIP stream. A report that fails to fill is
+     * written as a .error.txt entry instead, so one bad record does not abort the batch.
+     */
+    public void writeZip(BatchReportRequest request, CompiledReport compiledReport, OutputStream outputStream)
+            throws IOException, JRException {
+        List<BatchReportItem> items = request.getReports();
+        List<String> entryNames = entryNames(items);
+
+        ZipOutputStream zip = new ZipOutputStream(outputStream);
+        // PDF content is already compressed
+        zip.setLevel(Deflater.BEST_SPEED);
+        try (BatchFill batchFill = new BatchFill(compiledReport, request)) {
+            for (int i = 0; i < items.size(); i++) {
+                FilledReport filledReport;
+                try {
+                    filledReport = batchFill.get(i);
+                } catch (IOException | JRException | RuntimeException e) {
+                    log.warn("Batch report {} of {} failed: {}", i + 1, request.getJrxmlFileName(), e.getMessage());
+                    zip.putNextEntry(new ZipEntry(entryNames.get(i) + ".error.txt"));
+                    zip.write(String.valueOf(e.getMessage()).getBytes(StandardCharsets.UTF_8));
+                    zip.closeEntry();
+                    continue;
+                }
+
+                zip.putNextEntry(new ZipEntry(entryNames.get(i)));
+                // The PDF writer closes its stream, keep the ZIP open
+                reportService.writePdf(filledReport.getJasperPrint(), StreamUtils.nonClosing(zip));
+                zip.closeEntry();
+                batchFill.release(i);
+            }
+        }
+        zip.finish();
+        zip.flush();
+    }
+
+    /**
+     * Write all reports into a single PDF, in request order
+     */
+    public void writeMergedPdf(BatchReportRequest request, CompiledReport compiledReport,
+            OutputStream outputStream) throws IOException, JRException {
+        try (BatchFill batchFill = new BatchFill(compiledReport, request)) {
+            // Runs on the calling thread rather than the render pool: the exporter
+            // waits for fills that themselves need render threads
+            reportService.createPdfExporter(new MergedInput(batchFill), outputStream).exportReport();
+        } catch (JRRuntimeException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            if (e.getCause() instanceof JRException) {
+                throw (JRException) e.getCause();
+            }
+            throw e;
+        }
+    }
+
+    /**
+     * File name of each report in the ZIP, unique and ending in .pdf
+     */
+    private static List<String> entryNames(List<BatchReportItem> items) {
+        List<String> names = new ArrayList<>(items.size());
+        Set<String> used = new HashSet<>();
+        for (int i = 0; i < items.size(); i++) {
+            String name = items.get(i).getName();
+            if (name == null || name.isBlank()) {
+                name = String.format("report-%05d.pdf", i + 1);
+            } else {
+                name = name.replaceAll("[\\\\/:*?\"<>|]", "_");
+                if (!name.toLowerCase(Locale.ROOT).endsWith(".pdf")) {
+                    name = name + ".pdf";
+                }
+            }
+            if (!used.add(name)) {
+                name = String.format("%05d-%s", i + 1, name);
+                used.add(name);
+            }
+            names.add(name);
+        }
+        return names;
+    }
+
+    /**
+     * Fills the reports of a batch on the render pool, keeping at most one fill
+     * per render thread (plus one) running ahead of the report being written
+     */
+    private class BatchFill implements AutoCloseable {
+        private final CompiledReport compiledReport;
+        private final BatchReportRequest request;
+        private final List<Future<FilledReport>> futures;
+        private final FilledReport[] filled;
+        private final int window;
+        private int submitted;
+
+        BatchFill(CompiledReport compiledReport, BatchReportRequest request) {
+            this.compiledReport = compiledReport;
+            this.request = request;
+            int count = request.getReports().size();
+            this.futures = new ArrayList<>(count);
+            this.filled = new FilledReport[count];
+            this.window = renderExecutor.getPoolSize() + 1;
+        }
+
+        /**
+         * Wait for a report to be filled, queueing the fills that follow it
+         */
+        FilledReport get(int index) throws IOException, JRException {
+            List<BatchReportItem> items = request.getReports();
+            while (submitted < items.size() && submitted <= index + window) {
+                BatchReportItem item = items.get(submitted);
+                futures.add(renderExecutor.submit(() -> reportService.fillReport(compiledReport,
+                        item.getParameters() != null ? item.getParameters() : new HashMap<>(),
+                        item.getDataRecords(), request.getVirtualizer())));
+                submitted++;
+            }
+
+            if (filled[index] == null) {
+                Future<FilledReport> future = futures.get(index);
+                if (future == null) {
+                    throw new IllegalStateException("Batch report " + (index + 1) + " was already released");
+                }
+                futures.set(index, null);
+                filled[index] = await(future);
+            }
+            return filled[index];
+        }
+
+        /**
+         * Release a report once it has been written
+         */
+        void release(int index) {
+            if (filled[index] != null) {
+                filled[index].close();
+                filled[index] = null;
+            }
+        }
+
+        int size() {
+            return request.getReports().size();
+        }
+
+        @Override
+        public void close() {
+            for (int i = 0; i < futures.size(); i++) {
+                Future<FilledReport> future = futures.get(i);
+                // Fills already running are waited for so their virtualizer files are cleaned up
+                if (future != null && !future.cancel(false)) {
+                    try {
+                        future.get().close();
+                    } catch (Exception ignored) {
+                        // Failed fills hold no resources
+                    }
+                }
+                release(i);
+            }
+        }
+
+        private FilledReport await(Future<FilledReport> future) throws IOException, JRException {
+            try {
+                return future.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new IOException("Interrupted while waiting for batch report", e);
+            } catch (ExecutionException e) {
+                Throwable cause = e.getCause();
+                if (cause instanceof IOException) {
+                    throw (IOException) cause;
+                }
+                if (cause instanceof JRException) {
+                    throw (JRException) cause;
+                }
+                if (cause instanceof RuntimeException) {
+                    throw (RuntimeException) cause;
+                }
+                throw new JRException(cause.getMessage(), cause);
+            }
+        }
+    }
+
+    /**
+     * Exporter input that hands the PDF exporter each report as soon as it is
+     * filled and releases reports the exporter has moved past
+     */
+    private static class MergedInput implements ExporterInput {
+        private final List<ExporterInputItem> items;
+
+        MergedInput(BatchFill batchFill) {
+            this.items = new AbstractList<>() {
+                @Override
+                public ExporterInputItem get(int index) {
+                    try {
+                        FilledReport filledReport = batchFill.get(index);
+                        if (index > 1) {
+                            batchFill.release(index - 2);
+                        }
+                        return new SimpleExporterInputItem(filledReport.getJasperPrint());
+                    } catch (IOException | JRException e) {
+                        throw new JRRuntimeException(e);
+                    }
+                }
+
+                @Override
+                public int size() {
+                    return batchFill.size();
+                }
+            };
+        }
+
+        @Override
+        public List<ExporterInputItem> getItems() {
+            return items;
+        }
+    }
+}
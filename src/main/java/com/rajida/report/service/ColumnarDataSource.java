@@ -0,0 +1,448 @@
+package com.rajida.report.service;
+
+import net.sf.jasperreports.engine.JRField;
+import net.sf.jasperreports.engine.JRRewindableDataSource;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column-oriented data source for large in-memory datasets.
+ * Numeric fields are stored in primitive arrays with a null bitmap (BigDecimal as
+ * an unscaled long and its scale) and strings are dictionary-encoded while the
+ * column's cardinality stays low, so repeated
+ * institute/branch/product names cost 4 bytes per row instead of a reference
+ * plus a map entry. A column falls back to plain object storage when a value
+ * does not fit its type.
+ */
+public class ColumnarDataSource implements JRRewindableDataSource {
+
+    private final FieldConverterPlan plan;
+    private final Column[] columns;
+    private final int rowCount;
+    private int position = -1;
+
+    private ColumnarDataSource(FieldConverterPlan plan, Column[] columns, int rowCount) {
+        this.plan = plan;
+        this.columns = columns;
+        this.rowCount = rowCount;
+    }
+
+    /**
+     * Convert data records into a columnar data source, collecting conversion failures in errors (if not null)
+     */
+    public static ColumnarDataSource of(FieldConverterPlan plan, List<Map<String, Object>> dataRecords,
+            int maxDictionarySize, ConversionErrors errors) {
+        Builder builder = new Builder(plan, dataRecords.size(), maxDictionarySize, errors);
+        for (Map<String, Object> record : dataRecords) {
+            builder.addRecord(record);
+        }
+        return builder.build();
+    }
+
+    public int getRowCount() {
+        return rowCount;
+    }
+
+    @Override
+    public boolean next() {
+        position++;
+        return position < rowCount;
+    }
+
+    @Override
+    public Object getFieldValue(JRField jrField) {
+        int index = plan.indexOf(jrField.getName());
+        return index >= 0 ? columns[index].get(position) : null;
+    }
+
+    @Override
+    public void moveFirst() {
+        position = -1;
+    }
+
+    /**
+     * Appends rows column by column, converting values with the report's plan
+     */
+    public static class Builder {
+        private final FieldConverterPlan plan;
+        private final ConversionErrors errors;
+        private final Column[] columns;
+        private int capacity;
+        private int rowCount;
+
+        public Builder(FieldConverterPlan plan, int expectedRows, int maxDictionarySize, ConversionErrors errors) {
+            this.plan = plan;
+            this.errors = errors;
+            this.capacity = Math.max(16, expectedRows);
+            this.columns = new Column[plan.getFieldCount()];
+            for (int i = 0; i < columns.length; i++) {
+                columns[i] = Column.forClass(plan.getFieldClass(i), capacity, maxDictionarySize);
+            }
+        }
+
+        public void addRecord(Map<String, Object> record) {
+            ensureCapacity();
+            for (int i = 0; i < columns.length; i++) {
+                set(i, plan.convertValue(i, record.get(plan.getFieldName(i)), errors));
+            }
+            rowCount++;
+        }
+
+        public ColumnarDataSource build() {
+            return new ColumnarDataSource(plan, columns, rowCount);
+        }
+
+        private void set(int column, Object value) {
+            if (!columns[column].set(rowCount, value)) {
+                // Value does not fit the column type (e.g. failed conversion), store as objects
+                columns[column] = columns[column].toObjectColumn(rowCount, capacity);
+                columns[column].set(rowCount, value);
+            }
+        }
+
+        private void ensureCapacity() {
+            if (rowCount == capacity) {
+                capacity = capacity + (capacity >> 1);
+                for (Column column : columns) {
+                    column.grow(capacity);
+                }
+            }
+        }
+    }
+
+    private abstract static class Column {
+
+        static Column forClass(String fieldClass, int capacity, int maxDictionarySize) {
+            if (fieldClass == null) {
+                return new ObjectColumn(capacity);
+            }
+            switch (fieldClass) {
+                case "java.lang.Integer":
+                    return new IntColumn(capacity);
+                case "java.lang.Long":
+                    return new LongColumn(capacity);
+                case "java.lang.Short":
+                    return new ShortColumn(capacity);
+                case "java.lang.Double":
+                    return new DoubleColumn(capacity);
+                case "java.lang.Float":
+                    return new FloatColumn(capacity);
+                case "java.math.BigDecimal":
+                    return new DecimalColumn(capacity);
+                case "java.lang.String":
+                    return new DictionaryColumn(capacity, maxDictionarySize);
+                default:
+                    return new ObjectColumn(capacity);
+            }
+        }
+
+        /**
+         * Store a value, returning false if it does not fit this column type
+         */
+        abstract boolean set(int row, Object value);
+
+        abstract Object get(int row);
+
+        abstract void grow(int capacity);
+
+        ObjectColumn toObjectColumn(int rows, int capacity) {
+            ObjectColumn column = new ObjectColumn(capacity);
+            for (int row = 0; row < rows; row++) {
+                column.values[row] = get(row);
+            }
+            return column;
+        }
+    }
+
+    private static class ObjectColumn extends Column {
+        private Object[] values;
+
+        ObjectColumn(int capacity) {
+            values = new Object[capacity];
+        }
+
+        @Override
+        boolean set(int row, Object value) {
+            values[row] = value;
+            return true;
+        }
+
+        @Override
+        Object get(int row) {
+            return values[row];
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+
+        @Override
+        ObjectColumn toObjectColumn(int rows, int capacity) {
+            return this;
+        }
+    }
+
+    private static class IntColumn extends Column {
+        private int[] values;
+        private final BitSet nulls = new BitSet();
+
+        IntColumn(int capacity) {
+            values = new int[capacity];
+        }
+
+        @Override
+        boolean set(int row, Object value) {
+            if (value == null) {
+                nulls.set(row);
+                return true;
+            }
+            if (!(value instanceof Integer)) {
+                return false;
+            }
+            values[row] = (Integer) value;
+            return true;
+        }
+
+        @Override
+        Object get(int row) {
+            return nulls.get(row) ? null : values[row];
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    private static class LongColumn extends Column {
+        private long[] values;
+        private final BitSet nulls = new BitSet();
+
+        LongColumn(int capacity) {
+            values = new long[capacity];
+        }
+
+        @Override
+        boolean set(int row, Object value) {
+            if (value == null) {
+                nulls.set(row);
+                return true;
+            }
+            if (!(value instanceof Long)) {
+                return false;
+            }
+            values[row] = (Long) value;
+            return true;
+        }
+
+        @Override
+        Object get(int row) {
+            return nulls.get(row) ? null : values[row];
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    private static class DoubleColumn extends Column {
+        private double[] values;
+        private final BitSet nulls = new BitSet();
+
+        DoubleColumn(int capacity) {
+            values = new double[capacity];
+        }
+
+        @Override
+        boolean set(int row, Object value) {
+            if (value == null) {
+                nulls.set(row);
+                return true;
+            }
+            if (!(value instanceof Double)) {
+                return false;
+            }
+            values[row] = (Double) value;
+            return true;
+        }
+
+        @Override
+        Object get(int row) {
+            return nulls.get(row) ? null : values[row];
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    private static class ShortColumn extends Column {
+        private short[] values;
+        private final BitSet nulls = new BitSet();
+
+        ShortColumn(int capacity) {
+            values = new short[capacity];
+        }
+
+        @Override
+        boolean set(int row, Object value) {
+            if (value == null) {
+                nulls.set(row);
+                return true;
+            }
+            if (!(value instanceof Short)) {
+                return false;
+            }
+            values[row] = (Short) value;
+            return true;
+        }
+
+        @Override
+        Object get(int row) {
+            return nulls.get(row) ? null : values[row];
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    private static class FloatColumn extends Column {
+        private float[] values;
+        private final BitSet nulls = new BitSet();
+
+        FloatColumn(int capacity) {
+            values = new float[capacity];
+        }
+
+        @Override
+        boolean set(int row, Object value) {
+            if (value == null) {
+                nulls.set(row);
+                return true;
+            }
+            if (!(value instanceof Float)) {
+                return false;
+            }
+            values[row] = (Float) value;
+            return true;
+        }
+
+        @Override
+        Object get(int row) {
+            return nulls.get(row) ? null : values[row];
+        }
+
+        @Override
+        void grow(int capacity) {
+            values = Arrays.copyOf(values, capacity);
+        }
+    }
+
+    /**
+     * Decimals stored as unscaled long values with a scale per row, so each value
+     * reads back with the same value and scale as sent. Values with more than 18
+     * digits or an unusual scale do not fit and turn the column into objects.
+     */
+    private static class DecimalColumn extends Column {
+        private long[] unscaledValues;
+        private byte[] scales;
+        private final BitSet nulls = new BitSet();
+
+        DecimalColumn(int capacity) {
+            unscaledValues = new long[capacity];
+            scales = new byte[capacity];
+        }
+
+        @Override
+        boolean set(int row, Object value) {
+            if (value == null) {
+                nulls.set(row);
+                return true;
+            }
+            if (!(value instanceof BigDecimal)) {
+                return false;
+            }
+            BigDecimal decimal = (BigDecimal) value;
+            if (decimal.unscaledValue().bitLength() > 63 || decimal.scale() != (byte) decimal.scale()) {
+                return false;
+            }
+            unscaledValues[row] = decimal.unscaledValue().longValue();
+            scales[row] = (byte) decimal.scale();
+            return true;
+        }
+
+        @Override
+        Object get(int row) {
+            return nulls.get(row) ? null : BigDecimal.valueOf(unscaledValues[row], scales[row]);
+        }
+
+        @Override
+        void grow(int capacity) {
+            unscaledValues = Arrays.copyOf(unscaledValues, capacity);
+            scales = Arrays.copyOf(scales, capacity);
+        }
+    }
+
+    /**
+     * Strings stored as codes into a dictionary of distinct values. Once the
+     * dictionary exceeds its limit the column is high-cardinality and is
+     * rewritten as a plain object column by the builder.
+     */
+    private static class DictionaryColumn extends Column {
+        private static final int NULL_CODE = -1;
+
+        private int[] codes;
+        private final List<String> dictionary = new ArrayList<>();
+        private final Map<String, Integer> codeByValue = new HashMap<>();
+        private final int maxDictionarySize;
+
+        DictionaryColumn(int capacity, int maxDictionarySize) {
+            this.codes = new int[capacity];
+            this.maxDictionarySize = maxDictionarySize;
+        }
+
+        @Override
+        boolean set(int row, Object value) {
+            if (value == null) {
+                codes[row] = NULL_CODE;
+                return true;
+            }
+            if (!(value instanceof String)) {
+                return false;
+            }
+            Integer code = codeByValue.get(value);
+            if (code == null) {
+                if (dictionary.size() >= maxDictionarySize) {
+                    return false;
+                }
+                code = dictionary.size();
+                dictionary.add((String) value);
+                codeByValue.put((String) value, code);
+            }
+            codes[row] = code;
+            return true;
+        }
+
+        @Override
+        Object get(int row) {
+            int code = codes[row];
+            return code == NULL_CODE ? null : dictionary.get(code);
+        }
+
+        @Override
+        void grow(int capacity) {
+            codes = Arrays.copyOf(codes, capacity);
+        }
+    }
+}
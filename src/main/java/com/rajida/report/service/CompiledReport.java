@@ -0,0 +1,85 @@
+package com.rajida.report.service;
+
+import net.sf.jasperreports.engine.JasperReport;
+
+/**
+ * Compiled JRXML template together with the source file state it was built from
+ */
+public class CompiledReport {
+    private final String fileName;
+    private final String contentHash;
+    private final JasperReport jasperReport;
+    private final long compileTimeMillis;
+    private final FieldConverterPlan converterPlan;
+    private final TemplateFonts fonts;
+    private volatile long size;
+    private volatile long lastModified;
+
+    public CompiledReport(String fileName, String contentHash, JasperReport jasperReport,
+            long compileTimeMillis, long size, long lastModified) {
+        this.fileName = fileName;
+        this.contentHash = contentHash;
+        this.jasperReport = jasperReport;
+        this.compileTimeMillis = compileTimeMillis;
+        this.converterPlan = FieldConverterPlan.of(jasperReport);
+        this.fonts = TemplateFonts.of(jasperReport);
+        this.size = size;
+        this.lastModified = lastModified;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public JasperReport getJasperReport() {
+        return jasperReport;
+    }
+
+    /**
+     * Time spent compiling the JRXML, 0 when loaded from a persisted .jasper file
+     */
+    public long getCompileTimeMillis() {
+        return compileTimeMillis;
+    }
+
+    /**
+     * Field conversion plan for data sent to this report
+     */
+    public FieldConverterPlan getConverterPlan() {
+        return converterPlan;
+    }
+
+    /**
+     * Fonts of this report, resolved when it was compiled or loaded
+     */
+    public TemplateFonts getFonts() {
+        return fonts;
+    }
+
+    public long getSize() {
+        return size;
+    }
+
+    public long getLastModified() {
+        return lastModified;
+    }
+
+    /**
+     * True if the file still has the size and modification time seen at load
+     */
+    boolean matches(long size, long lastModified) {
+        return this.size == size && this.lastModified == lastModified;
+    }
+
+    /**
+     * Record a new file stamp after the content hash was verified unchanged
+     */
+    void touch(long size, long lastModified) {
+        this.size = size;
+        this.lastModified = lastModified;
+    }
+}
@@ -0,0 +1,311 @@
+package com.rajida.report.service;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.util.JRSaver;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * LRU cache of compiled JRXML templates.
+ * Entries are keyed by file name and validated against the size/mtime of the file
+ * in the TemplateIndex, falling back to a SHA-256 content hash when the stamp changed,
+ * so a cache hit does not touch the filesystem. Misses are loaded on the render pool,
+ * once per template however many requests wait for it. Compiled reports
+ * are persisted as .jasper files next to the uploads so a restart does not recompile.
+ */
+@Component
+public class CompiledReportCache {
+
+    private static final Logger log = LoggerFactory.getLogger(CompiledReportCache.class);
+
+    /**
+     * Report property holding the hash of the JRXML a persisted .jasper was compiled from
+     */
+    static final String SOURCE_HASH_PROPERTY = "com.rajida.report.source.hash";
+
+    @Value("${upload.dir:uploads}")
+    private String uploadDir;
+
+    @Value("${report.cache.persist-compiled:true}")
+    private boolean persistCompiled;
+
+    @Autowired
+    private ReportMetrics reportMetrics;
+
+    @Autowired
+    private TemplateIndex templateIndex;
+
+    @Autowired
+    private RenderExecutor renderExecutor;
+
+    private final Map<String, CompiledReport> entries;
+
+    // Loads in progress, removed when they complete
+    private final Map<String, CompletableFuture<CompiledReport>> loads = new ConcurrentHashMap<>();
+
+    public CompiledReportCache(@Value("${report.cache.max-entries:64}") int maxEntries) {
+        this.entries = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, CompiledReport> eldest) {
+                return size() > maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Get the compiled report for an uploaded JRXML, compiling it if needed.
+     * Loads run on a render thread; concurrent requests for the same template wait for one load.
+     */
+    public CompiledReport get(String jrxmlFileName) throws IOException, JRException {
+        TemplateIndex.Entry entry = templateIndex.get(jrxmlFileName);
+        if (entry == null) {
+            throw new FileNotFoundException("JRXML file not found: " + jrxmlFileName);
+        }
+
+        CompiledReport cached = lookup(jrxmlFileName);
+        if (cached != null && cached.matches(entry.getSize(), entry.getLastModified())) {
+            reportMetrics.recordCacheLookup("compiled", true);
+            return cached;
+        }
+
+        CompletableFuture<CompiledReport> load = new CompletableFuture<>();
+        CompletableFuture<CompiledReport> running = loads.putIfAbsent(jrxmlFileName, load);
+        if (running != null) {
+            return await(running);
+        }
+        try {
+            CompiledReport loaded = renderExecutor.execute(() -> load(jrxmlFileName, entry));
+            load.complete(loaded);
+            return loaded;
+        } catch (Exception | Error e) {
+            load.completeExceptionally(e);
+            throw rethrow(e);
+        } finally {
+            loads.remove(jrxmlFileName, load);
+        }
+    }
+
+    /**
+     * Read, load or compile a template, unless another request loaded the current file meanwhile
+     */
+    private CompiledReport load(String jrxmlFileName, TemplateIndex.Entry entry) throws IOException, JRException {
+        Path jrxmlPath = Paths.get(uploadDir, jrxmlFileName);
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(jrxmlPath, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            templateIndex.refresh(jrxmlFileName);
+            throw new FileNotFoundException("JRXML file not found: " + jrxmlFileName);
+        }
+        long size = attributes.size();
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        CompiledReport cached = lookup(jrxmlFileName);
+        if (cached != null && cached.matches(size, lastModified)) {
+            reportMetrics.recordCacheLookup("compiled", true);
+            return cached;
+        }
+
+        long start = System.nanoTime();
+        byte[] source = Files.readAllBytes(jrxmlPath);
+        String hash = sha256(source);
+        reportMetrics.recordPhase(ReportMetrics.LOAD, jrxmlFileName, ReportMetrics.NO_FORMAT, start);
+        if (!hash.equals(entry.getContentHash())) {
+            // Changed after it was indexed, the watcher event may still be on its way
+            templateIndex.refresh(jrxmlFileName);
+        }
+        if (cached != null && cached.getContentHash().equals(hash)) {
+            // Touched but unchanged, keep the compiled report
+            cached.touch(size, lastModified);
+            reportMetrics.recordCacheLookup("compiled", true);
+            return cached;
+        }
+        reportMetrics.recordCacheLookup("compiled", false);
+
+        CompiledReport loaded = loadPersisted(jrxmlFileName, hash, size, lastModified);
+        if (loaded == null) {
+            loaded = compile(jrxmlFileName, source, hash, size, lastModified);
+        }
+        if (!loaded.getFonts().getMissing().isEmpty()) {
+            log.warn("{} uses fonts that are not available and will be rendered with a fallback font: {}",
+                    jrxmlFileName, loaded.getFonts().getMissing());
+        }
+        synchronized (entries) {
+            entries.put(jrxmlFileName, loaded);
+        }
+        return loaded;
+    }
+
+    /**
+     * Wait for the load another request started
+     */
+    private static CompiledReport await(CompletableFuture<CompiledReport> load) throws IOException, JRException {
+        try {
+            return load.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for the template to compile");
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        }
+    }
+
+    /**
+     * Rethrow a load failure, which can only be an IOException, JRException or unchecked
+     */
+    private static RuntimeException rethrow(Throwable e) throws IOException, JRException {
+        if (e instanceof IOException) {
+            throw (IOException) e;
+        }
+        if (e instanceof JRException) {
+            throw (JRException) e;
+        }
+        if (e instanceof Error) {
+            throw (Error) e;
+        }
+        if (e instanceof RuntimeException) {
+            throw (RuntimeException) e;
+        }
+        throw new IllegalStateException(e);
+    }
+
+    /**
+     * Get the compiled report if it is already in memory, without touching the file
+     */
+    public CompiledReport getIfPresent(String jrxmlFileName) {
+        return lookup(jrxmlFileName);
+    }
+
+    /**
+     * Drop the cached and persisted compiled report for a JRXML file
+     */
+    public void invalidate(String jrxmlFileName) {
+        synchronized (entries) {
+            entries.remove(jrxmlFileName);
+        }
+        try {
+            Files.deleteIfExists(compiledPath(jrxmlFileName));
+        } catch (IOException e) {
+            log.warn("Could not delete compiled report for {}: {}", jrxmlFileName, e.getMessage());
+        }
+    }
+
+    /**
+     * Drop the in-memory compiled report of a template that changed or was deleted.
+     * The persisted .jasper is left alone: it is checked against the content hash when
+     * loaded, and another node may just have written it for the new content.
+     */
+    @EventListener
+    public void onTemplateChanged(TemplateChangedEvent event) {
+        synchronized (entries) {
+            CompiledReport cached = entries.get(event.getFileName());
+            if (cached != null && !cached.getContentHash().equals(event.getContentHash())) {
+                entries.remove(event.getFileName());
+            }
+        }
+    }
+
+    private CompiledReport lookup(String jrxmlFileName) {
+        synchronized (entries) {
+            return entries.get(jrxmlFileName);
+        }
+    }
+
+    private CompiledReport compile(String jrxmlFileName, byte[] source, String hash, long size, long lastModified)
+            throws JRException {
+        long start = System.nanoTime();
+        JasperReport jasperReport = JasperCompileManager.compileReport(new ByteArrayInputStream(source));
+        long compileTimeMillis = (System.nanoTime() - start) / 1_000_000;
+        reportMetrics.recordPhase(ReportMetrics.COMPILE, jrxmlFileName, ReportMetrics.NO_FORMAT, start);
+        log.debug("Compiled {} in {} ms", jrxmlFileName, compileTimeMillis);
+
+        if (persistCompiled) {
+            jasperReport.getPropertiesMap().setProperty(SOURCE_HASH_PROPERTY, hash);
+            persist(jrxmlFileName, jasperReport);
+        }
+        return new CompiledReport(jrxmlFileName, hash, jasperReport, compileTimeMillis, size, lastModified);
+    }
+
+    private CompiledReport loadPersisted(String jrxmlFileName, String hash, long size, long lastModified) {
+        if (!persistCompiled) {
+            return null;
+        }
+        Path compiledPath = compiledPath(jrxmlFileName);
+        if (!Files.exists(compiledPath)) {
+            return null;
+        }
+        try {
+            long start = System.nanoTime();
+            JasperReport jasperReport = (JasperReport) JRLoader.loadObject(compiledPath.toFile());
+            reportMetrics.recordPhase(ReportMetrics.LOAD, jrxmlFileName, ReportMetrics.NO_FORMAT, start);
+            if (!hash.equals(jasperReport.getProperty(SOURCE_HASH_PROPERTY))) {
+                return null;
+            }
+            log.debug("Loaded persisted compiled report for {}", jrxmlFileName);
+            return new CompiledReport(jrxmlFileName, hash, jasperReport, 0, size, lastModified);
+        } catch (JRException | ClassCastException e) {
+            // Stale or incompatible artifact (e.g. Jasper upgrade), recompile
+            log.debug("Ignoring persisted compiled report for {}: {}", jrxmlFileName, e.getMessage());
+            return null;
+        }
+    }
+
+    private void persist(String jrxmlFileName, JasperReport jasperReport) {
+        Path compiledPath = compiledPath(jrxmlFileName);
+        try {
+            Path tempPath = Files.createTempFile(compiledPath.getParent(), ".compile-", ".tmp");
+            try {
+                JRSaver.saveObject(jasperReport, tempPath.toFile());
+                Files.move(tempPath, compiledPath, StandardCopyOption.REPLACE_EXISTING,
+                        StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tempPath);
+            }
+        } catch (IOException | JRException e) {
+            log.warn("Could not persist compiled report for {}: {}", jrxmlFileName, e.getMessage());
+        }
+    }
+
+    /**
+     * report.jrxml is persisted as report.jasper in the same directory
+     */
+    Path compiledPath(String jrxmlFileName) {
+        String baseName = jrxmlFileName.endsWith(".jrxml")
+                ? jrxmlFileName.substring(0, jrxmlFileName.length() - ".jrxml".length())
+                : jrxmlFileName;
+        return Paths.get(uploadDir, baseName + ".jasper");
+    }
+
+    static String sha256(byte[] content) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    }
+}
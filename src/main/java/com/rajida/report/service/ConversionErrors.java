@@ -0,0 +1,68 @@
+package com.rajida.report.service;
+
+import com.rajida.report.model.ConversionErrorSummary;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Conversion failures of one fill, aggregated instead of reported per cell:
+ * a count per field and the first few failed values as samples
+ */
+public class ConversionErrors {
+
+    private static final int MAX_SAMPLE_LENGTH = 60;
+
+    private final int maxSamples;
+    private final Map<String, Long> counts = new LinkedHashMap<>();
+    private final List<String> samples = new ArrayList<>();
+    private long total;
+
+    public ConversionErrors(int maxSamples) {
+        this.maxSamples = maxSamples;
+    }
+
+    synchronized void add(String fieldName, Object value, Exception e) {
+        total++;
+        counts.merge(fieldName, 1L, Long::sum);
+        if (samples.size() < maxSamples) {
+            String text = String.valueOf(value);
+            if (text.length() > MAX_SAMPLE_LENGTH) {
+                text = text.substring(0, MAX_SAMPLE_LENGTH) + "...";
+            }
+            samples.add(fieldName + ": \"" + text + "\" (" + e.getClass().getSimpleName() + ")");
+        }
+    }
+
+    public synchronized boolean isEmpty() {
+        return total == 0;
+    }
+
+    public synchronized long getTotal() {
+        return total;
+    }
+
+    /**
+     * Failed values per field as "field=count, ..."
+     */
+    public synchronized String fieldCounts() {
+        return counts.entrySet().stream()
+                .map(entry -> entry.getKey() + "=" + entry.getValue())
+                .collect(Collectors.joining(", "));
+    }
+
+    public synchronized List<String> getSamples() {
+        return new ArrayList<>(samples);
+    }
+
+    public synchronized ConversionErrorSummary toSummary() {
+        ConversionErrorSummary summary = new ConversionErrorSummary();
+        summary.setTotal(total);
+        summary.setFields(new LinkedHashMap<>(counts));
+        summary.setSamples(new ArrayList<>(samples));
+        return summary;
+    }
+}
@@ -0,0 +1,37 @@
+package com.rajida.report.service;
+
+import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
+
+/**
+ * Counts the rows read from a data source whose size is not known in advance
+ * (result sets, streamed requests)
+ */
+class CountingDataSource implements JRDataSource {
+
+    private final JRDataSource dataSource;
+    private long rows;
+
+    CountingDataSource(JRDataSource dataSource) {
+        this.dataSource = dataSource;
+    }
+
+    @Override
+    public boolean next() throws JRException {
+        boolean hasNext = dataSource.next();
+        if (hasNext) {
+            rows++;
+        }
+        return hasNext;
+    }
+
+    @Override
+    public Object getFieldValue(JRField jrField) throws JRException {
+        return dataSource.getFieldValue(jrField);
+    }
+
+    long getRows() {
+        return rows;
+    }
+}
@@ -0,0 +1,150 @@
+package com.rajida.report.service;
+
+import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Pull-based data source reading CSV (RFC 4180) rows from a request body.
+ * The first line holds the field names; values are matched to fields by position
+ * and converted as they are read. Empty unquoted values are null, "" is an empty string.
+ */
+class CsvRecordDataSource implements JRDataSource {
+
+    private static final int BUFFER_SIZE = 16 * 1024;
+
+    private final Reader reader;
+    private final FieldConverterPlan plan;
+    private final ConversionErrors errors;
+    private final int[] fieldIndexes;
+    private final Object[] current;
+    private final List<String> values = new ArrayList<>();
+    private final StringBuilder value = new StringBuilder();
+    private final char[] buffer = new char[BUFFER_SIZE];
+    private int position;
+    private int limit;
+    private boolean finished;
+
+    /**
+     * Reads the header line
+     *
+     * @param reader CSV text, not buffered by the caller
+     * @param plan   converter plan of the report being filled
+     * @param errors collects values that could not be converted
+     */
+    CsvRecordDataSource(Reader reader, FieldConverterPlan plan, ConversionErrors errors) throws IOException {
+        this.reader = reader;
+        this.plan = plan;
+        this.errors = errors;
+        if (!readRow()) {
+            throw new IllegalArgumentException("CSV body must start with a header line of field names");
+        }
+        this.fieldIndexes = plan.indexesOf(new ArrayList<>(values));
+        this.current = new Object[plan.getFieldCount()];
+    }
+
+    @Override
+    public boolean next() throws JRException {
+        if (finished) {
+            return false;
+        }
+        try {
+            if (!readRow()) {
+                finished = true;
+                return false;
+            }
+        } catch (IOException e) {
+            throw new JRException("Failed to read CSV rows: " + e.getMessage(), e);
+        }
+
+        Arrays.fill(current, null);
+        int columns = Math.min(values.size(), fieldIndexes.length);
+        for (int column = 0; column < columns; column++) {
+            int index = fieldIndexes[column];
+            if (index >= 0) {
+                current[index] = plan.convertValue(index, values.get(column), errors);
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public Object getFieldValue(JRField jrField) {
+        int index = plan.indexOf(jrField.getName());
+        return index >= 0 ? current[index] : null;
+    }
+
+    /**
+     * Read the next non-empty line into values, false at the end of the input
+     */
+    private boolean readRow() throws IOException {
+        values.clear();
+        int c = read();
+        // Skip blank lines
+        while (c == '\r' || c == '\n') {
+            c = read();
+        }
+        if (c < 0) {
+            return false;
+        }
+
+        while (true) {
+            value.setLength(0);
+            boolean quoted = false;
+            if (c == '"') {
+                quoted = true;
+                while (true) {
+                    c = read();
+                    if (c < 0) {
+                        throw new IOException("Unterminated quoted CSV value");
+                    }
+                    if (c == '"') {
+                        c = read();
+                        if (c != '"') {
+                            break;
+                        }
+                    }
+                    value.append((char) c);
+                }
+            } else {
+                while (c >= 0 && c != ',' && c != '\r' && c != '\n') {
+                    value.append((char) c);
+                    c = read();
+                }
+            }
+            values.add(quoted || value.length() > 0 ? value.toString() : null);
+
+            if (c == ',') {
+                c = read();
+                continue;
+            }
+            if (c == '\r') {
+                c = read();
+                if (c != '\n' && c >= 0) {
+                    position--;
+                }
+            } else if (c >= 0 && c != '\n') {
+                throw new IOException("Unexpected character after quoted CSV value: " + (char) c);
+            }
+            return true;
+        }
+    }
+
+    private int read() throws IOException {
+        if (position == limit) {
+            limit = reader.read(buffer, 0, buffer.length);
+            position = 0;
+            if (limit <= 0) {
+                limit = 0;
+                return -1;
+            }
+        }
+        return buffer[position++];
+    }
+}
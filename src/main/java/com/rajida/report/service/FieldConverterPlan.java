@@ -0,0 +1,262 @@
+package com.rajida.report.service;
+
+import net.sf.jasperreports.engine.JRField;
+import net.sf.jasperreports.engine.JasperReport;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Per-report conversion plan: one precomputed converter per report field,
+ * built once when the template is compiled. Rows are converted into
+ * Object[] records indexed by field position instead of per-row hash maps.
+ */
+public class FieldConverterPlan {
+
+    /**
+     * Converts a non-null incoming value to a field's value class
+     */
+    @FunctionalInterface
+    interface ValueConverter {
+        Object convert(Object value) throws Exception;
+    }
+
+    private static final ValueConverter IDENTITY = value -> value;
+
+    private final String[] fieldNames;
+    private final String[] fieldClasses;
+    private final ValueConverter[] converters;
+    private final Map<String, Integer> fieldIndex;
+
+    private FieldConverterPlan(JRField[] fields) {
+        int count = fields != null ? fields.length : 0;
+        this.fieldNames = new String[count];
+        this.fieldClasses = new String[count];
+        this.converters = new ValueConverter[count];
+        this.fieldIndex = new HashMap<>(count * 2);
+        for (int i = 0; i < count; i++) {
+            fieldNames[i] = fields[i].getName();
+            fieldClasses[i] = fields[i].getValueClassName();
+            converters[i] = converterFor(fieldClasses[i]);
+            fieldIndex.put(fieldNames[i], i);
+        }
+    }
+
+    /**
+     * Build the conversion plan for a compiled report's fields
+     */
+    public static FieldConverterPlan of(JasperReport jasperReport) {
+        return new FieldConverterPlan(jasperReport.getFields());
+    }
+
+    public int getFieldCount() {
+        return fieldNames.length;
+    }
+
+    public String getFieldName(int index) {
+        return fieldNames[index];
+    }
+
+    public String getFieldClass(int index) {
+        return fieldClasses[index];
+    }
+
+    /**
+     * Position of a field in converted rows, or -1 if the report has no such field
+     */
+    public int indexOf(String fieldName) {
+        Integer index = fieldIndex.get(fieldName);
+        return index != null ? index : -1;
+    }
+
+    /**
+     * Field positions of the columns of a header-once row format, -1 for columns that are not report fields
+     */
+    public int[] indexesOf(List<String> columns) {
+        int[] indexes = new int[columns.size()];
+        for (int i = 0; i < indexes.length; i++) {
+            indexes[i] = indexOf(columns.get(i));
+        }
+        return indexes;
+    }
+
+    /**
+     * Convert data records into index-based rows, ignoring conversion failures
+     */
+    public List<Object[]> convert(List<Map<String, Object>> dataRecords) {
+        return convert(dataRecords, null);
+    }
+
+    /**
+     * Convert data records into index-based rows, collecting conversion failures in errors (if not null)
+     */
+    public List<Object[]> convert(List<Map<String, Object>> dataRecords, ConversionErrors errors) {
+        if (dataRecords == null) {
+            return new ArrayList<>();
+        }
+        List<Object[]> rows = new ArrayList<>(dataRecords.size());
+        for (Map<String, Object> record : dataRecords) {
+            rows.add(convertRecord(record, errors));
+        }
+        return rows;
+    }
+
+    /**
+     * Convert one record; keys that are not report fields are dropped
+     */
+    public Object[] convertRecord(Map<String, Object> record, ConversionErrors errors) {
+        Object[] row = new Object[fieldNames.length];
+        for (int i = 0; i < fieldNames.length; i++) {
+            row[i] = convertValue(i, record.get(fieldNames[i]), errors);
+        }
+        return row;
+    }
+
+    /**
+     * Convert a value for the field at the given index.
+     * If conversion fails the original value is kept and the failure added to errors (if not null).
+     */
+    public Object convertValue(int index, Object value, ConversionErrors errors) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return converters[index].convert(value);
+        } catch (Exception e) {
+            if (errors != null) {
+                errors.add(fieldNames[index], value, e);
+            }
+            return value;
+        }
+    }
+
+    private static ValueConverter converterFor(String fieldClass) {
+        if (fieldClass == null) {
+            return IDENTITY;
+        }
+        switch (fieldClass) {
+            case "java.lang.String":
+                return value -> value instanceof String ? value : value.toString();
+            case "java.lang.Double":
+                return value -> value instanceof Double ? value
+                        : value instanceof Number ? ((Number) value).doubleValue()
+                        : value instanceof String ? (Object) Double.parseDouble((String) value) : value;
+            case "java.lang.Float":
+                return value -> value instanceof Float ? value
+                        : value instanceof Number ? ((Number) value).floatValue()
+                        : value instanceof String ? (Object) Float.parseFloat((String) value) : value;
+            case "java.lang.Integer":
+                return value -> value instanceof Integer ? value
+                        : value instanceof Number ? ((Number) value).intValue()
+                        : value instanceof String ? (Object) Integer.parseInt((String) value) : value;
+            case "java.lang.Long":
+                return value -> value instanceof Long ? value
+                        : value instanceof Number ? ((Number) value).longValue()
+                        : value instanceof String ? (Object) Long.parseLong((String) value) : value;
+            case "java.lang.Short":
+                return value -> value instanceof Short ? value
+                        : value instanceof Number ? ((Number) value).shortValue()
+                        : value instanceof String ? (Object) Short.parseShort((String) value) : value;
+            case "java.math.BigDecimal":
+                return FieldConverterPlan::toBigDecimal;
+            case "java.lang.Boolean":
+                return FieldConverterPlan::toBoolean;
+            case "java.sql.Timestamp":
+                return value -> value instanceof Timestamp ? value : Timestamp.valueOf(toLocalDateTime(value));
+            case "java.util.Date":
+                return value -> value instanceof java.util.Date ? value
+                        : java.util.Date.from(toLocalDateTime(value).atZone(ZoneId.systemDefault()).toInstant());
+            case "java.sql.Date":
+                return value -> value instanceof java.sql.Date ? value
+                        : java.sql.Date.valueOf(toLocalDateTime(value).toLocalDate());
+            case "java.time.LocalDate":
+                return value -> value instanceof LocalDate ? value : toLocalDateTime(value).toLocalDate();
+            case "java.time.LocalDateTime":
+                return value -> value instanceof LocalDateTime ? value : toLocalDateTime(value);
+            default:
+                return IDENTITY;
+        }
+    }
+
+    private static Object toBigDecimal(Object value) {
+        if (value instanceof BigDecimal) {
+            return value;
+        }
+        if (value instanceof Integer || value instanceof Long || value instanceof Short) {
+            return BigDecimal.valueOf(((Number) value).longValue());
+        }
+        if (value instanceof BigInteger) {
+            return new BigDecimal((BigInteger) value);
+        }
+        if (value instanceof Number || value instanceof String) {
+            // Double.toString gives the shortest round-tripping decimal, so 0.1 stays 0.1
+            return new BigDecimal(value.toString());
+        }
+        return value;
+    }
+
+    /**
+     * Accepts true/false, 1/0 and y/n (case-insensitive); any other string is a conversion error
+     */
+    private static Object toBoolean(Object value) {
+        if (value instanceof Boolean) {
+            return value;
+        }
+        if (value instanceof Number) {
+            return ((Number) value).intValue() != 0;
+        }
+        if (value instanceof String) {
+            String text = (String) value;
+            if ("true".equalsIgnoreCase(text) || "1".equals(text) || "y".equalsIgnoreCase(text)) {
+                return true;
+            }
+            if ("false".equalsIgnoreCase(text) || "0".equals(text) || "n".equalsIgnoreCase(text)) {
+                return false;
+            }
+            throw new IllegalArgumentException("Not a boolean: " + text);
+        }
+        return value;
+    }
+
+    /**
+     * Accepts ISO date-time (2022-02-22T00:00:00[.SSS]), ISO date (2022-02-22),
+     * java.util.Date and epoch milliseconds
+     */
+    private static LocalDateTime toLocalDateTime(Object value) {
+        if (value instanceof String) {
+            String text = (String) value;
+            if (text.length() == 10) {
+                return LocalDate.parse(text, DateTimeFormatter.ISO_LOCAL_DATE).atStartOfDay();
+            }
+            return LocalDateTime.parse(text, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
+        }
+        if (value instanceof Timestamp) {
+            return ((Timestamp) value).toLocalDateTime();
+        }
+        if (value instanceof java.util.Date) {
+            // getTime() rather than toInstant(), which java.sql.Date does not support
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(((java.util.Date) value).getTime()),
+                    ZoneId.systemDefault());
+        }
+        if (value instanceof Number) {
+            return LocalDateTime.ofInstant(Instant.ofEpochMilli(((Number) value).longValue()), ZoneId.systemDefault());
+        }
+        if (value instanceof LocalDate) {
+            return ((LocalDate) value).atStartOfDay();
+        }
+        if (value instanceof LocalDateTime) {
+            return (LocalDateTime) value;
+        }
+        throw new IllegalArgumentException("Unsupported date value: " + value);
+    }
+}
@@ -0,0 +1,56 @@
+package com.rajida.report.service;
+
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.fill.JRAbstractLRUVirtualizer;
+
+/**
+ * Filled report together with the virtualizer holding its swapped-out pages
+ * and the data values that could not be converted while filling.
+ * Close it once the report has been exported to release virtualizer files/memory.
+ */
+public class FilledReport implements AutoCloseable {
+    private final JasperPrint jasperPrint;
+    private final JRAbstractLRUVirtualizer virtualizer;
+    private final ConversionErrors conversionErrors;
+
+    public FilledReport(JasperPrint jasperPrint, JRAbstractLRUVirtualizer virtualizer) {
+        this(jasperPrint, virtualizer, null);
+    }
+
+    public FilledReport(JasperPrint jasperPrint, JRAbstractLRUVirtualizer virtualizer,
+            ConversionErrors conversionErrors) {
+        this.jasperPrint = jasperPrint;
+        this.virtualizer = virtualizer;
+        this.conversionErrors = conversionErrors;
+        if (virtualizer != null) {
+            // Pages no longer change after filling, keep swapped data for repeated reads
+            virtualizer.setReadOnly(true);
+        }
+    }
+
+    public JasperPrint getJasperPrint() {
+        return jasperPrint;
+    }
+
+    public boolean isVirtualized() {
+        return virtualizer != null;
+    }
+
+    /**
+     * Conversion failures of the fill, null if the rows were not converted (e.g. query reports)
+     */
+    public ConversionErrors getConversionErrors() {
+        return conversionErrors;
+    }
+
+    public boolean hasConversionErrors() {
+        return conversionErrors != null && !conversionErrors.isEmpty();
+    }
+
+    @Override
+    public void close() {
+        if (virtualizer != null) {
+            virtualizer.cleanup();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package com.rajida.report.service;
+
+import com.lowagie.text.pdf.BaseFont;
+import jakarta.annotation.PostConstruct;
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.fonts.FontFace;
+import net.sf.jasperreports.engine.fonts.FontFamily;
+import net.sf.jasperreports.repo.RepositoryUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Loads and parses the fonts of the Jasper font extensions (fonts/fonts.xml, and the
+ * DejaVu fonts of jasperreports-fonts) once at startup. Each face is parsed for AWT
+ * text layout and for PDF export; the PDF
+ * fonts go into the shared font cache of the PDF library under the name, encoding
+ * and embedding the PDF exporter asks for, so exports reuse them instead of reading
+ * and parsing the font files again.
+ */
+@Component
+public class FontCache {
+
+    private static final Logger log = LoggerFactory.getLogger(FontCache.class);
+
+    private final Map<String, BaseFont> pdfFonts = new LinkedHashMap<>();
+
+    @PostConstruct
+    public synchronized void load() {
+        long start = System.nanoTime();
+        JasperReportsContext context = DefaultJasperReportsContext.getInstance();
+        RepositoryUtil repository = RepositoryUtil.getInstance(context);
+        long bytes = 0;
+
+        for (FontFamily family : context.getExtensions(FontFamily.class)) {
+            for (FontFace face : faces(family)) {
+                String location = face.getPdf() != null ? face.getPdf() : face.getTtf();
+                // Without a family encoding the exporter uses the element's, which is not known here
+                if (location == null || family.getPdfEncoding() == null || pdfFonts.containsKey(location)) {
+                    continue;
+                }
+                try {
+                    // Parsed once for text measuring, kept by the font face
+                    face.getFont();
+                    byte[] data = repository.getBytesFromLocation(location);
+                    boolean embedded = family.isPdfEmbedded() == null || family.isPdfEmbedded();
+                    pdfFonts.put(location,
+                            BaseFont.createFont(location, family.getPdfEncoding(), embedded, true, data, null));
+                    bytes += data.length;
+                } catch (Exception e) {
+                    log.warn("Could not load font {} of {}: {}", location, family.getName(), e.getMessage());
+                }
+            }
+        }
+
+        log.info("Loaded {} fonts ({} KB) in {} ms", pdfFonts.size(), bytes / 1024,
+                (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /**
+     * Locations of the loaded fonts
+     */
+    public synchronized List<String> getLocations() {
+        return Collections.unmodifiableList(new ArrayList<>(pdfFonts.keySet()));
+    }
+
+    private static List<FontFace> faces(FontFamily family) {
+        return Stream.of(family.getNormalFace(), family.getBoldFace(), family.getItalicFace(),
+                family.getBoldItalicFace()).filter(Objects::nonNull).toList();
+    }
+}
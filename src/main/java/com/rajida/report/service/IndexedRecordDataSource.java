@@ -0,0 +1,39 @@
+package com.rajida.report.service;
+
+import net.sf.jasperreports.engine.JRField;
+import net.sf.jasperreports.engine.JRRewindableDataSource;
+
+import java.util.List;
+
+/**
+ * Data source over rows converted by a FieldConverterPlan.
+ * Field values are looked up by their position in the plan.
+ */
+public class IndexedRecordDataSource implements JRRewindableDataSource {
+
+    private final FieldConverterPlan plan;
+    private final List<Object[]> rows;
+    private int position = -1;
+
+    public IndexedRecordDataSource(FieldConverterPlan plan, List<Object[]> rows) {
+        this.plan = plan;
+        this.rows = rows;
+    }
+
+    @Override
+    public boolean next() {
+        position++;
+        return position < rows.size();
+    }
+
+    @Override
+    public Object getFieldValue(JRField jrField) {
+        int index = plan.indexOf(jrField.getName());
+        return index >= 0 ? rows.get(position)[index] : null;
+    }
+
+    @Override
+    public void moveFirst() {
+        position = -1;
+    }
+}
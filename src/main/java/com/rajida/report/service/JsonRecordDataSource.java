@@ -0,0 +1,74 @@
+package com.rajida.report.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Pull-based data source reading dataRecords objects straight from a JSON parser.
+ * Only the current row is held in memory; values of unknown fields are skipped
+ * and the rest are converted to the report field types as they are read.
+ */
+class JsonRecordDataSource implements JRDataSource {
+
+    private final JsonParser parser;
+    private final FieldConverterPlan plan;
+    private final ConversionErrors errors;
+    private final Object[] current;
+    private boolean finished;
+
+    /**
+     * @param parser parser positioned on the START_ARRAY of dataRecords
+     * @param plan   converter plan of the report being filled
+     * @param errors collects values that could not be converted
+     */
+    JsonRecordDataSource(JsonParser parser, FieldConverterPlan plan, ConversionErrors errors) {
+        this.parser = parser;
+        this.plan = plan;
+        this.errors = errors;
+        this.current = new Object[plan.getFieldCount()];
+    }
+
+    @Override
+    public boolean next() throws JRException {
+        if (finished) {
+            return false;
+        }
+        try {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.END_ARRAY || token == null) {
+                finished = true;
+                return false;
+            }
+            if (token != JsonToken.START_OBJECT) {
+                throw new JRException("dataRecords must be an array of JSON objects");
+            }
+
+            Arrays.fill(current, null);
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                int index = plan.indexOf(parser.getCurrentName());
+                JsonToken valueToken = parser.nextToken();
+                if (index < 0) {
+                    parser.skipChildren();
+                    continue;
+                }
+                current[index] = plan.convertValue(index, StreamingReportReader.readValue(parser, valueToken),
+                        errors);
+            }
+            return true;
+        } catch (IOException e) {
+            throw new JRException("Failed to read dataRecords: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Object getFieldValue(JRField jrField) {
+        int index = plan.indexOf(jrField.getName());
+        return index >= 0 ? current[index] : null;
+    }
+}
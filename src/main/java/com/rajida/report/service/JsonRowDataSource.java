@@ -0,0 +1,78 @@
+package com.rajida.report.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRField;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Pull-based data source reading rows sent as arrays after a columns header,
+ * straight from a JSON, Smile or CBOR parser. Field names are sent once, values
+ * are matched to fields by position and converted as they are read.
+ */
+class JsonRowDataSource implements JRDataSource {
+
+    private final JsonParser parser;
+    private final FieldConverterPlan plan;
+    private final ConversionErrors errors;
+    private final int[] fieldIndexes;
+    private final Object[] current;
+    private boolean finished;
+
+    /**
+     * @param parser  parser positioned on the START_ARRAY of rows
+     * @param columns field name of each row position
+     * @param plan    converter plan of the report being filled
+     * @param errors  collects values that could not be converted
+     */
+    JsonRowDataSource(JsonParser parser, List<String> columns, FieldConverterPlan plan, ConversionErrors errors) {
+        this.parser = parser;
+        this.plan = plan;
+        this.errors = errors;
+        this.fieldIndexes = plan.indexesOf(columns);
+        this.current = new Object[plan.getFieldCount()];
+    }
+
+    @Override
+    public boolean next() throws JRException {
+        if (finished) {
+            return false;
+        }
+        try {
+            JsonToken token = parser.nextToken();
+            if (token == JsonToken.END_ARRAY || token == null) {
+                finished = true;
+                return false;
+            }
+            if (token != JsonToken.START_ARRAY) {
+                throw new JRException("rows must be an array of arrays");
+            }
+
+            Arrays.fill(current, null);
+            int column = 0;
+            while ((token = parser.nextToken()) != JsonToken.END_ARRAY) {
+                int index = column < fieldIndexes.length ? fieldIndexes[column] : -1;
+                column++;
+                if (index < 0) {
+                    parser.skipChildren();
+                    continue;
+                }
+                current[index] = plan.convertValue(index, StreamingReportReader.readValue(parser, token), errors);
+            }
+            return true;
+        } catch (IOException e) {
+            throw new JRException("Failed to read rows: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Object getFieldValue(JRField jrField) {
+        int index = plan.indexOf(jrField.getName());
+        return index >= 0 ? current[index] : null;
+    }
+}
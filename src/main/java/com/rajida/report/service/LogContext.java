@@ -0,0 +1,61 @@
+package com.rajida.report.service;
+
+import org.slf4j.MDC;
+
+import java.util.Map;
+import java.util.concurrent.Callable;
+
+/**
+ * Logging context (MDC) of a request, carried over to the pool threads working
+ * on it so their log lines have the same request id
+ */
+public final class LogContext {
+
+    /**
+     * MDC key of the correlation id, also returned in the X-Request-Id response header
+     */
+    public static final String REQUEST_ID = "requestId";
+
+    private LogContext() {
+    }
+
+    /**
+     * Wrap a task to run with the calling thread's logging context
+     */
+    public static Runnable wrap(Runnable task) {
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        return () -> {
+            Map<String, String> previous = MDC.getCopyOfContextMap();
+            set(context);
+            try {
+                task.run();
+            } finally {
+                set(previous);
+            }
+        };
+    }
+
+    /**
+     * Wrap a task to run with the calling thread's logging context
+     */
+    public static <T> Callable<T> wrap(Callable<T> task) {
+        Map<String, String> context = MDC.getCopyOfContextMap();
+        return () -> {
+            Map<String, String> previous = MDC.getCopyOfContextMap();
+            set(context);
+            try {
+                return task.call();
+            } finally {
+                set(previous);
+            }
+        };
+    }
+
+    static void set(Map<String, String> context) {
+        if (context != null) {
+            MDC.setContextMap(context);
+        } else {
+            MDC.clear();
+        }
+    }
+}
@@ -0,0 +1,376 @@
+package com.rajida.report.service;
+
+import com.rajida.report.model.ReportData;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cache of rendered report output keyed by a content hash of the request, so
+ * repeated identical requests are answered without filling or exporting.
+ * Entries live in memory (LRU, bounded by total bytes) and, when a spill
+ * directory is configured, evicted entries move to disk (LRU, bounded
+ * separately). All entries expire after a TTL.
+ */
+@Component
+public class OutputCache {
+
+    private static final Logger log = LoggerFactory.getLogger(OutputCache.class);
+
+    @Autowired
+    private CompiledReportCache compiledReportCache;
+
+    @Autowired
+    private ReportRequestHasher reportRequestHasher;
+
+    private final boolean enabled;
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final long maxDiskBytes;
+    private final long ttlMillis;
+    private final Path spillDir;
+
+    private final Map<String, Entry> memory = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, Entry> disk = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryBytes;
+    private long diskBytes;
+
+    public OutputCache(@Value("${report.output-cache.enabled:true}") boolean enabled,
+            @Value("${report.output-cache.max-bytes:33554432}") long maxBytes,
+            @Value("${report.output-cache.ttl-minutes:5}") long ttlMinutes,
+            @Value("${report.output-cache.spill-dir:}") String spillDir,
+            @Value("${report.output-cache.max-disk-bytes:536870912}") long maxDiskBytes) throws IOException {
+        this.enabled = enabled;
+        this.maxBytes = maxBytes;
+        // A single output may not take more than a quarter of the memory cache
+        this.maxEntryBytes = maxBytes / 4;
+        this.ttlMillis = TimeUnit.MINUTES.toMillis(ttlMinutes);
+        this.maxDiskBytes = maxDiskBytes;
+        this.spillDir = spillDir.isBlank() ? null : Files.createDirectories(Paths.get(spillDir));
+    }
+
+    /**
+     * Cache key of a request's output in a format, or null if the request cannot be cached.
+     * Reports filled from a query file are not cached as their data is not part of the request.
+     */
+    public String key(ReportData reportData, String format) throws Exception {
+        if (!enabled || reportData.getJrxmlFileName() == null || reportData.getQueryFile() != null) {
+            return null;
+        }
+        CompiledReport compiledReport = compiledReportCache.get(reportData.getJrxmlFileName());
+        return reportRequestHasher.hash(compiledReport, reportData) + "-" + format;
+    }
+
+    /**
+     * Weak entity tag for a cache key. Weak, because re-rendering the same request
+     * gives equivalent but not byte-identical output (e.g. PDF creation time).
+     */
+    public static String etag(String key) {
+        return "W/\"" + key + "\"";
+    }
+
+    /**
+     * True if an If-None-Match header value matches the entity tag
+     */
+    public static boolean matches(String ifNoneMatch, String etag) {
+        if (ifNoneMatch == null) {
+            return false;
+        }
+        String opaqueTag = opaqueTag(etag);
+        for (String candidate : ifNoneMatch.split(",")) {
+            String tag = candidate.trim();
+            if ("*".equals(tag) || opaqueTag.equals(opaqueTag(tag))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Get cached output, or null if it is not cached or has expired
+     */
+    public byte[] get(String key) {
+        Entry entry;
+        List<Path> deletions = new ArrayList<>();
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            entry = memory.get(key);
+            if (entry == null) {
+                entry = disk.get(key);
+            }
+            if (entry == null) {
+                return null;
+            }
+            if (isExpired(entry, now)) {
+                remove(key, deletions);
+                entry = null;
+            } else if (entry.data != null) {
+                return entry.data;
+            }
+        }
+        deleteQuietly(deletions);
+        if (entry == null) {
+            return null;
+        }
+
+        try {
+            return Files.readAllBytes(entry.path);
+        } catch (NoSuchFileException e) {
+            // Evicted while being read
+            return null;
+        } catch (IOException e) {
+            log.warn("Could not read spilled output {}: {}", entry.path, e.getMessage());
+            return null;
+        }
+    }
+
+    /**
+     * Wrap a response stream so the output written through it is cached once
+     * commit() is called. Output larger than the entry limit is not cached.
+     */
+    public Capture capture(String key, OutputStream outputStream) {
+        return new Capture(key, outputStream);
+    }
+
+    /**
+     * Remove expired entries
+     */
+    @Scheduled(fixedDelayString = "${report.output-cache.cleanup-interval-ms:60000}")
+    public void removeExpired() {
+        List<Path> deletions = new ArrayList<>();
+        synchronized (this) {
+            long now = System.currentTimeMillis();
+            removeExpired(memory, now, deletions);
+            removeExpired(disk, now, deletions);
+        }
+        deleteQuietly(deletions);
+    }
+
+    @PreDestroy
+    public void clear() {
+        List<Path> deletions = new ArrayList<>();
+        synchronized (this) {
+            memory.clear();
+            memoryBytes = 0;
+            for (Entry entry : disk.values()) {
+                deletions.add(entry.path);
+            }
+            disk.clear();
+            diskBytes = 0;
+        }
+        deleteQuietly(deletions);
+    }
+
+    /**
+     * Cache output in memory. Entries evicted to make room are chosen under the lock
+     * and spilled to disk after it is released, so file I/O never blocks other requests.
+     */
+    private void put(String key, byte[] data) {
+        if (data.length > maxEntryBytes) {
+            return;
+        }
+        List<Path> deletions = new ArrayList<>();
+        Map<String, Entry> evicted;
+        synchronized (this) {
+            remove(key, deletions);
+            memory.put(key, new Entry(data));
+            memoryBytes += data.length;
+            evicted = evictMemory();
+        }
+        deleteQuietly(deletions);
+        if (spillDir != null) {
+            evicted.forEach(this::spill);
+        }
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.createdAt > ttlMillis;
+    }
+
+    private void removeExpired(Map<String, Entry> entries, long now, List<Path> deletions) {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (isExpired(entry, now)) {
+                iterator.remove();
+                release(entry, deletions);
+            }
+        }
+    }
+
+    private void remove(String key, List<Path> deletions) {
+        Entry entry = memory.remove(key);
+        if (entry == null) {
+            entry = disk.remove(key);
+        }
+        if (entry != null) {
+            release(entry, deletions);
+        }
+    }
+
+    /**
+     * Account for a removed entry; the file of a spilled one is added to deletions
+     */
+    private void release(Entry entry, List<Path> deletions) {
+        if (entry.data != null) {
+            memoryBytes -= entry.size;
+        } else {
+            diskBytes -= entry.size;
+            deletions.add(entry.path);
+        }
+    }
+
+    /**
+     * Remove least recently used entries from memory until it is within its limit, returning them
+     */
+    private Map<String, Entry> evictMemory() {
+        Map<String, Entry> evicted = new LinkedHashMap<>();
+        Iterator<Map.Entry<String, Entry>> iterator = memory.entrySet().iterator();
+        while (memoryBytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Entry> eldest = iterator.next();
+            iterator.remove();
+            memoryBytes -= eldest.getValue().size;
+            evicted.put(eldest.getKey(), eldest.getValue());
+        }
+        return evicted;
+    }
+
+    /**
+     * Write an evicted entry to its own file, then add it to the disk entries unless the
+     * key was cached again meanwhile
+     */
+    private void spill(String key, Entry entry) {
+        Path path;
+        try {
+            path = Files.createTempFile(spillDir, key + "-", ".out");
+            Files.write(path, entry.data);
+        } catch (IOException e) {
+            log.warn("Could not spill output {} to {}: {}", key, spillDir, e.getMessage());
+            return;
+        }
+
+        List<Path> deletions = new ArrayList<>();
+        synchronized (this) {
+            if (memory.containsKey(key) || disk.containsKey(key)) {
+                deletions.add(path);
+            } else {
+                Entry spilled = new Entry(path, entry.size, entry.createdAt);
+                disk.put(key, spilled);
+                diskBytes += spilled.size;
+
+                Iterator<Entry> iterator = disk.values().iterator();
+                while (diskBytes > maxDiskBytes && iterator.hasNext()) {
+                    Entry eldest = iterator.next();
+                    iterator.remove();
+                    release(eldest, deletions);
+                }
+            }
+        }
+        deleteQuietly(deletions);
+    }
+
+    private static void deleteQuietly(List<Path> paths) {
+        for (Path path : paths) {
+            try {
+                Files.deleteIfExists(path);
+            } catch (IOException e) {
+                log.warn("Could not delete spilled output {}: {}", path, e.getMessage());
+            }
+        }
+    }
+
+    private static String opaqueTag(String tag) {
+        return tag.startsWith("W/") ? tag.substring(2) : tag;
+    }
+
+    /**
+     * Cached output, either in memory (data) or spilled to disk (path)
+     */
+    private static class Entry {
+        final byte[] data;
+        final Path path;
+        final long size;
+        final long createdAt;
+
+        Entry(byte[] data) {
+            this.data = data;
+            this.path = null;
+            this.size = data.length;
+            this.createdAt = System.currentTimeMillis();
+        }
+
+        Entry(Path path, long size, long createdAt) {
+            this.data = null;
+            this.path = path;
+            this.size = size;
+            this.createdAt = createdAt;
+        }
+    }
+
+    /**
+     * Passes output through to the response while keeping a copy for the cache
+     */
+    public class Capture extends FilterOutputStream {
+        private final String key;
+        private ByteArrayOutputStream copy = new ByteArrayOutputStream();
+
+        private Capture(String key, OutputStream outputStream) {
+            super(outputStream);
+            this.key = key;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            if (copy != null) {
+                copy.write(b);
+                checkSize();
+            }
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            if (copy != null) {
+                copy.write(b, off, len);
+                checkSize();
+            }
+        }
+
+        /**
+         * Cache the captured output, call once it has been completely written
+         */
+        public void commit() {
+            if (copy != null) {
+                put(key, copy.toByteArray());
+                copy = null;
+            }
+        }
+
+        private void checkSize() {
+            if (copy.size() > maxEntryBytes) {
+                // Too large to cache, stop copying
+                copy = null;
+            }
+        }
+    }
+}
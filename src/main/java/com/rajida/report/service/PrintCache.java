@@ -0,0 +1,200 @@
+package com.rajida.report.service;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.engine.util.JRSaver;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Filled reports kept as GZIP-compressed serialized JasperPrints, so one fill can
+ * be exported to several formats. Entries expire after a TTL and the least
+ * recently used ones are evicted once the total compressed size exceeds its limit.
+ */
+@Component
+public class PrintCache {
+
+    /**
+     * Cached print with its compressed bytes
+     */
+    public static class Entry {
+        private final String printId;
+        private final String jrxmlFileName;
+        private final int pageCount;
+        private final byte[] data;
+        private final long createdAt = System.currentTimeMillis();
+
+        Entry(String printId, String jrxmlFileName, int pageCount, byte[] data) {
+            this.printId = printId;
+            this.jrxmlFileName = jrxmlFileName;
+            this.pageCount = pageCount;
+            this.data = data;
+        }
+
+        public String getPrintId() {
+            return printId;
+        }
+
+        public String getJrxmlFileName() {
+            return jrxmlFileName;
+        }
+
+        public int getPageCount() {
+            return pageCount;
+        }
+
+        public int getSize() {
+            return data.length;
+        }
+
+        public long getCreatedAt() {
+            return createdAt;
+        }
+    }
+
+    private final long maxBytes;
+    private final long maxEntryBytes;
+    private final long ttlMillis;
+    private final Map<String, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<String, JasperPrint> loaded;
+    private long totalBytes;
+
+    public PrintCache(@Value("${report.print-cache.max-bytes:67108864}") long maxBytes,
+            @Value("${report.print-cache.ttl-minutes:15}") long ttlMinutes,
+            @Value("${report.print-cache.max-loaded:4}") int maxLoaded) {
+        this.maxBytes = maxBytes;
+        // A single print may not take more than a quarter of the cache
+        this.maxEntryBytes = maxBytes / 4;
+        this.ttlMillis = TimeUnit.MINUTES.toMillis(ttlMinutes);
+        // Most recently exported prints stay deserialized, so paging through a preview
+        // does not decompress the whole print for every page
+        this.loaded = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, JasperPrint> eldest) {
+                return size() > maxLoaded;
+            }
+        };
+    }
+
+    /**
+     * Get a cached entry, or null if it does not exist or has expired
+     */
+    public synchronized Entry get(String printId) {
+        Entry entry = entries.get(printId);
+        if (entry != null && isExpired(entry, System.currentTimeMillis())) {
+            remove(printId);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Serialize and store a filled report.
+     * Returns null if the compressed print is too large to be cached.
+     */
+    public Entry put(String printId, String jrxmlFileName, JasperPrint jasperPrint) throws JRException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (OutputStream outputStream = new GZIPOutputStream(bytes)) {
+            JRSaver.saveObject(jasperPrint, outputStream);
+        } catch (IOException e) {
+            throw new JRException("Could not serialize filled report", e);
+        }
+        if (bytes.size() > maxEntryBytes) {
+            return null;
+        }
+
+        Entry entry = new Entry(printId, jrxmlFileName, jasperPrint.getPages().size(), bytes.toByteArray());
+        synchronized (this) {
+            remove(printId);
+            entries.put(printId, entry);
+            totalBytes += entry.getSize();
+            evict();
+        }
+        return entry;
+    }
+
+    /**
+     * Get the filled report of a cached print, deserializing it if needed.
+     * The returned print is shared and must not be modified.
+     */
+    public JasperPrint load(Entry entry) throws JRException {
+        synchronized (this) {
+            JasperPrint jasperPrint = loaded.get(entry.getPrintId());
+            if (jasperPrint != null) {
+                return jasperPrint;
+            }
+        }
+
+        JasperPrint jasperPrint;
+        try (InputStream inputStream = new GZIPInputStream(new ByteArrayInputStream(entry.data))) {
+            jasperPrint = (JasperPrint) JRLoader.loadObject(inputStream);
+        } catch (IOException e) {
+            throw new JRException("Could not read cached report " + entry.getPrintId(), e);
+        }
+
+        synchronized (this) {
+            // Only keep it if the entry was not evicted meanwhile
+            if (entries.get(entry.getPrintId()) == entry) {
+                loaded.put(entry.getPrintId(), jasperPrint);
+            }
+        }
+        return jasperPrint;
+    }
+
+    /**
+     * Remove expired prints
+     */
+    @Scheduled(fixedDelayString = "${report.print-cache.cleanup-interval-ms:60000}")
+    public synchronized void removeExpired() {
+        long now = System.currentTimeMillis();
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (iterator.hasNext()) {
+            Entry entry = iterator.next();
+            if (isExpired(entry, now)) {
+                iterator.remove();
+                loaded.remove(entry.getPrintId());
+                totalBytes -= entry.getSize();
+            }
+        }
+    }
+
+    public synchronized long getTotalBytes() {
+        return totalBytes;
+    }
+
+    private boolean isExpired(Entry entry, long now) {
+        return now - entry.createdAt > ttlMillis;
+    }
+
+    private void remove(String printId) {
+        Entry removed = entries.remove(printId);
+        loaded.remove(printId);
+        if (removed != null) {
+            totalBytes -= removed.getSize();
+        }
+    }
+
+    private void evict() {
+        Iterator<Entry> iterator = entries.values().iterator();
+        while (totalBytes > maxBytes && iterator.hasNext()) {
+            Entry eldest = iterator.next();
+            iterator.remove();
+            loaded.remove(eldest.getPrintId());
+            totalBytes -= eldest.getSize();
+        }
+    }
+}
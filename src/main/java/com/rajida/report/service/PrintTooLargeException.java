@@ -0,0 +1,12 @@
+package com.rajida.report.service;
+
+/**
+ * A filled report is larger than a single print cache entry may be (a quarter of
+ * report.print-cache.max-bytes, compressed)
+ */
+public class PrintTooLargeException extends RuntimeException {
+
+    public PrintTooLargeException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,47 @@
+package com.rajida.report.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.stereotype.Component;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+
+/**
+ * Loads report SQL files from report.queries.dir (mounted at /app/queries in Docker),
+ * falling back to the queries bundled in the application under classpath:queries/
+ */
+@Component
+public class QueryRepository {
+
+    @Value("${report.queries.dir:queries}")
+    private String queriesDir;
+
+    /**
+     * Read a query file by name, the .sql extension is optional
+     */
+    public String load(String queryFile) throws IOException {
+        String fileName = queryFile.endsWith(".sql") ? queryFile : queryFile + ".sql";
+        // Plain file names only, queries cannot be read from outside the queries directory
+        if (!fileName.matches("[A-Za-z0-9_.-]+") || fileName.contains("..")) {
+            throw new IllegalArgumentException("Invalid query file name: " + queryFile);
+        }
+
+        Path path = Paths.get(queriesDir, fileName);
+        if (Files.isRegularFile(path)) {
+            return Files.readString(path, StandardCharsets.UTF_8);
+        }
+        ClassPathResource resource = new ClassPathResource("queries/" + fileName);
+        if (resource.exists()) {
+            try (InputStream inputStream = resource.getInputStream()) {
+                return new String(inputStream.readAllBytes(), StandardCharsets.UTF_8);
+            }
+        }
+        throw new FileNotFoundException("Query file not found: " + queryFile);
+    }
+}
@@ -0,0 +1,37 @@
+package com.rajida.report.service;
+
+/**
+ * Encodings accepted for streamed report requests, by request Content-Type
+ */
+public enum RecordEncoding {
+    JSON("application/json"),
+    SMILE("application/x-jackson-smile"),
+    CBOR("application/cbor"),
+    CSV("text/csv");
+
+    private final String mediaType;
+
+    RecordEncoding(String mediaType) {
+        this.mediaType = mediaType;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    /**
+     * Encoding of a Content-Type header value (parameters such as charset are ignored), JSON if absent
+     */
+    public static RecordEncoding of(String contentType) {
+        if (contentType == null || contentType.isBlank()) {
+            return JSON;
+        }
+        String mediaType = contentType.split(";", 2)[0].trim();
+        for (RecordEncoding encoding : values()) {
+            if (encoding.mediaType.equalsIgnoreCase(mediaType)) {
+                return encoding;
+            }
+        }
+        throw new IllegalArgumentException("Unsupported Content-Type: " + contentType);
+    }
+}
@@ -0,0 +1,182 @@
+package com.rajida.report.service;
+
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fixed-size pools for report fill and export work. The render pool is sized to the
+ * available cores by default, and request threads (virtual threads on Java 21) wait
+ * here for a render thread, so concurrent renders cannot oversubscribe the CPU.
+ * Fills that read their rows while filling (streamed request bodies, query result sets)
+ * also wait on the client or database, so they run on a separate input pool: a slow
+ * client or query holds one of those slots instead of a render thread. Exports write to
+ * the response as they go, so a slow reader can still hold a render thread once the
+ * response buffers are full. Time spent waiting for a thread is recorded as report.render.wait.
+ */
+@Component
+public class RenderExecutor {
+
+    /**
+     * Render work that may throw a checked exception
+     */
+    @FunctionalInterface
+    public interface RenderTask<T, E extends Exception> {
+        T call() throws E;
+    }
+
+    static final String RENDER_POOL = "render";
+    static final String INPUT_POOL = "input";
+
+    private static final ThreadLocal<Boolean> RENDER_THREAD = ThreadLocal.withInitial(() -> false);
+
+    @Autowired
+    private ReportMetrics reportMetrics;
+
+    private final ThreadPoolExecutor executor;
+    private final ThreadPoolExecutor inputExecutor;
+
+    public RenderExecutor(@Value("${report.render.threads:0}") int threads,
+            @Value("${report.render.input-threads:0}") int inputThreads) {
+        int poolSize = threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+        this.executor = newPool(poolSize, "report-render-");
+        this.inputExecutor = newPool(inputThreads > 0 ? inputThreads : poolSize, "report-input-");
+    }
+
+    private static ThreadPoolExecutor newPool(int poolSize, String threadPrefix) {
+        AtomicInteger threadCount = new AtomicInteger();
+        return new ThreadPoolExecutor(poolSize, poolSize, 0, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(() -> {
+                        RENDER_THREAD.set(true);
+                        runnable.run();
+                    }, threadPrefix + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Run a task on a render thread and wait for its result.
+     * Runs inline when already called from a render or input thread.
+     */
+    public <T, E extends Exception> T execute(RenderTask<T, E> task) throws E {
+        return execute(executor, RENDER_POOL, task);
+    }
+
+    /**
+     * Run a task that reads its input while rendering (e.g. a fill pulling rows from the
+     * request body or a result set) on an input thread and wait for its result.
+     * Runs inline when already called from a render or input thread.
+     */
+    public <T, E extends Exception> T executeReadingInput(RenderTask<T, E> task) throws E {
+        return execute(inputExecutor, INPUT_POOL, task);
+    }
+
+    private <T, E extends Exception> T execute(ThreadPoolExecutor pool, String poolName, RenderTask<T, E> task)
+            throws E {
+        if (RENDER_THREAD.get()) {
+            return task.call();
+        }
+        return this.<T, E>await(pool.submit(timed(poolName, task)));
+    }
+
+    /**
+     * Run tasks concurrently on render threads and wait for all results, in task order.
+     * If one fails the others are cancelled. Runs the tasks one after another when
+     * already called from a render thread.
+     */
+    public <T, E extends Exception> List<T> executeAll(List<? extends RenderTask<T, E>> tasks) throws E {
+        List<T> results = new ArrayList<>(tasks.size());
+        if (RENDER_THREAD.get()) {
+            for (RenderTask<T, E> task : tasks) {
+                results.add(task.call());
+            }
+            return results;
+        }
+
+        List<Future<T>> futures = new ArrayList<>(tasks.size());
+        for (RenderTask<T, E> task : tasks) {
+            futures.add(executor.submit(timed(RENDER_POOL, task)));
+        }
+        try {
+            for (Future<T> future : futures) {
+                results.add(this.<T, E>await(future));
+            }
+            return results;
+        } finally {
+            if (results.size() < futures.size()) {
+                futures.forEach(future -> future.cancel(true));
+            }
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private <T, E extends Exception> T await(Future<T> future) throws E {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new CancellationException("Interrupted while waiting for report rendering");
+        } catch (ExecutionException e) {
+            Throwable cause = e.getCause();
+            if (cause instanceof RuntimeException) {
+                throw (RuntimeException) cause;
+            }
+            if (cause instanceof Error) {
+                throw (Error) cause;
+            }
+            // Only E can be thrown by the task
+            throw (E) cause;
+        }
+    }
+
+    /**
+     * Queue a task on a render thread without waiting for it
+     */
+    public <T> Future<T> submit(RenderTask<T, ?> task) {
+        return executor.submit(timed(RENDER_POOL, task));
+    }
+
+    /**
+     * Callable running a task with the caller's log context, recording how long it waited for a thread
+     */
+    private <T> Callable<T> timed(String poolName, RenderTask<T, ?> task) {
+        long queuedAt = System.nanoTime();
+        Callable<T> callable = () -> {
+            reportMetrics.recordRenderWait(poolName, queuedAt);
+            return task.call();
+        };
+        return LogContext.wrap(callable);
+    }
+
+    public int getPoolSize() {
+        return executor.getCorePoolSize();
+    }
+
+    /**
+     * Renders waiting for a free render thread
+     */
+    public int getQueuedCount() {
+        return executor.getQueue().size();
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        inputExecutor.shutdownNow();
+    }
+}
@@ -0,0 +1,142 @@
+package com.rajida.report.service;
+
+import com.rajida.report.model.CompileStatus;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.io.FileNotFoundException;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compiles uploaded templates in the background and tracks their compile status
+ */
+@Service
+public class ReportCompilationService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportCompilationService.class);
+
+    @Value("${report.templates.compile-on-change:true}")
+    private boolean compileOnChange;
+
+    @Autowired
+    private CompiledReportCache compiledReportCache;
+
+    @Autowired
+    private TemplateIndex templateIndex;
+
+    private final Map<String, CompileStatus> statuses = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+
+    public ReportCompilationService(@Value("${report.compile.threads:2}") int threads,
+            @Value("${report.compile.queue-capacity:32}") int queueCapacity) {
+        AtomicInteger threadCount = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(threads, threads, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "report-compile-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        this.executor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * Queue a background compile of an uploaded JRXML file.
+     * If the queue is full the template stays NOT_COMPILED and compiles on first export.
+     */
+    public CompileStatus compileAsync(String jrxmlFileName) {
+        CompileStatus pending = new CompileStatus(jrxmlFileName, CompileStatus.State.PENDING);
+        statuses.put(jrxmlFileName, pending);
+        try {
+            Runnable task = () -> compile(jrxmlFileName);
+            executor.execute(LogContext.wrap(task));
+            return pending;
+        } catch (RejectedExecutionException e) {
+            CompileStatus skipped = new CompileStatus(jrxmlFileName, CompileStatus.State.NOT_COMPILED);
+            skipped.setError("Compile queue is full, template will compile on first export");
+            statuses.put(jrxmlFileName, skipped);
+            return skipped;
+        }
+    }
+
+    /**
+     * Compile a JRXML file on the calling thread, recording the outcome
+     */
+    public CompileStatus compile(String jrxmlFileName) {
+        statuses.put(jrxmlFileName, new CompileStatus(jrxmlFileName, CompileStatus.State.COMPILING));
+        CompileStatus status;
+        try {
+            status = compiledStatus(compiledReportCache.get(jrxmlFileName));
+        } catch (Exception e) {
+            log.warn("Compilation of {} failed: {}", jrxmlFileName, e.getMessage());
+            status = new CompileStatus(jrxmlFileName, CompileStatus.State.FAILED);
+            status.setError(e.getMessage());
+        }
+        statuses.put(jrxmlFileName, status);
+        return status;
+    }
+
+    /**
+     * Get the compile status of an uploaded JRXML file
+     */
+    public CompileStatus getStatus(String jrxmlFileName) throws FileNotFoundException {
+        if (!templateIndex.contains(jrxmlFileName)) {
+            throw new FileNotFoundException("JRXML file not found: " + jrxmlFileName);
+        }
+
+        CompileStatus status = statuses.get(jrxmlFileName);
+        if (status != null) {
+            return status;
+        }
+
+        // Not uploaded through this instance, report it as compiled if an export already did so
+        CompiledReport cached = compiledReportCache.getIfPresent(jrxmlFileName);
+        return cached != null
+                ? compiledStatus(cached)
+                : new CompileStatus(jrxmlFileName, CompileStatus.State.NOT_COMPILED);
+    }
+
+    /**
+     * Forget the status of a deleted JRXML file
+     */
+    public void remove(String jrxmlFileName) {
+        statuses.remove(jrxmlFileName);
+    }
+
+    /**
+     * Recompile templates changed on disk (by an upload to any node), forget deleted ones
+     */
+    @EventListener
+    public void onTemplateChanged(TemplateChangedEvent event) {
+        if (event.isDeleted()) {
+            remove(event.getFileName());
+        } else if (compileOnChange) {
+            compileAsync(event.getFileName());
+        } else {
+            statuses.remove(event.getFileName());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private CompileStatus compiledStatus(CompiledReport compiledReport) {
+        CompileStatus status = new CompileStatus(compiledReport.getFileName(), CompileStatus.State.COMPILED);
+        status.setContentHash(compiledReport.getContentHash());
+        status.setCompileTimeMillis(compiledReport.getCompileTimeMillis());
+        status.setMissingFonts(compiledReport.getFonts().getMissing());
+        return status;
+    }
+}
@@ -0,0 +1,275 @@
+package com.rajida.report.service;
+
+import com.rajida.report.model.ConversionErrorSummary;
+import com.rajida.report.model.ReportData;
+import com.rajida.report.model.ReportJob;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.Locale;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.PriorityBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Runs report exports as background jobs on a bounded, prioritized worker pool
+ * separate from the servlet threads. Results are spooled to disk and removed
+ * once their time-to-live has passed.
+ */
+@Service
+public class ReportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportJobService.class);
+
+    @Autowired
+    private ReportService reportService;
+
+    @Value("${report.jobs.max-queued:50}")
+    private int maxQueued;
+
+    @Value("${report.jobs.result-ttl-minutes:30}")
+    private long resultTtlMinutes;
+
+    private final Path resultDir;
+    private final ThreadPoolExecutor executor;
+    private final Map<String, JobEntry> jobs = new ConcurrentHashMap<>();
+    private final AtomicInteger queued = new AtomicInteger();
+    private final AtomicLong sequence = new AtomicLong();
+
+    public ReportJobService(@Value("${report.jobs.workers:2}") int workers,
+            @Value("${report.jobs.dir:${java.io.tmpdir}/rajida-report-jobs}") String resultDir) throws IOException {
+        this.resultDir = Files.createDirectories(Paths.get(resultDir));
+        AtomicInteger threadCount = new AtomicInteger();
+        // PriorityBlockingQueue orders queued jobs; its size is bounded by maxQueued on submit
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new PriorityBlockingQueue<>(), runnable -> {
+                    Thread thread = new Thread(runnable, "report-job-" + threadCount.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Queue a report export
+     *
+     * @throws RejectedExecutionException if the queue is full
+     */
+    public ReportJob submit(ReportData reportData) {
+        if (reportData.getJrxmlFileName() == null) {
+            throw new IllegalArgumentException("jrxmlFileName is required");
+        }
+        String format = reportData.getExportFormat() != null
+                ? reportData.getExportFormat().toLowerCase(Locale.ROOT)
+                : "pdf";
+        if (!"pdf".equals(format) && !"html".equals(format)) {
+            throw new IllegalArgumentException("Unsupported export format: " + reportData.getExportFormat());
+        }
+        reportService.checkQuerySupported(reportData);
+
+        if (queued.incrementAndGet() > maxQueued) {
+            queued.decrementAndGet();
+            throw new RejectedExecutionException("Report job queue is full (" + maxQueued + " jobs)");
+        }
+
+        JobEntry entry = new JobEntry(UUID.randomUUID().toString(), reportData, format,
+                reportData.getPriority() != null ? reportData.getPriority() : 0, sequence.incrementAndGet());
+        jobs.put(entry.id, entry);
+        try {
+            executor.execute(entry);
+        } catch (RejectedExecutionException e) {
+            queued.decrementAndGet();
+            jobs.remove(entry.id);
+            throw e;
+        }
+        return entry.toJob();
+    }
+
+    /**
+     * Get a job, or null if it does not exist or has expired
+     */
+    public ReportJob getJob(String id) {
+        JobEntry entry = jobs.get(id);
+        return entry != null ? entry.toJob() : null;
+    }
+
+    /**
+     * Path of a completed job's result, or null if the job is not completed
+     */
+    public Path getResult(String id) {
+        JobEntry entry = jobs.get(id);
+        return entry != null && entry.status == ReportJob.Status.COMPLETED ? entry.resultPath : null;
+    }
+
+    /**
+     * Content type of a job's result
+     */
+    public String getContentType(String id) {
+        JobEntry entry = jobs.get(id);
+        return entry != null && "html".equals(entry.format) ? "text/html;charset=UTF-8" : "application/pdf";
+    }
+
+    /**
+     * Remove finished jobs whose results have outlived their TTL
+     */
+    @Scheduled(fixedDelayString = "${report.jobs.cleanup-interval-ms:60000}")
+    public void removeExpiredJobs() {
+        long cutoff = System.currentTimeMillis() - TimeUnit.MINUTES.toMillis(resultTtlMinutes);
+        Iterator<JobEntry> iterator = jobs.values().iterator();
+        while (iterator.hasNext()) {
+            JobEntry entry = iterator.next();
+            if (entry.completedAt != null && entry.completedAt < cutoff) {
+                iterator.remove();
+                deleteResult(entry);
+            }
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+        for (JobEntry entry : jobs.values()) {
+            deleteResult(entry);
+        }
+    }
+
+    private void run(JobEntry entry) {
+        // Log lines of the job carry the id of the request that submitted it and the job id
+        LogContext.set(entry.logContext);
+        MDC.put("jobId", entry.id);
+        try {
+            runJob(entry);
+        } finally {
+            MDC.clear();
+        }
+    }
+
+    private void runJob(JobEntry entry) {
+        queued.decrementAndGet();
+        entry.startedAt = System.currentTimeMillis();
+        entry.status = ReportJob.Status.RUNNING;
+
+        ReportData reportData = entry.reportData;
+        Path resultPath = resultDir.resolve(entry.id + "." + entry.format);
+        try {
+            try (FilledReport filledReport = reportService.fillReport(reportData)) {
+                if (filledReport.hasConversionErrors()) {
+                    entry.conversionErrors = filledReport.getConversionErrors().toSummary();
+                }
+                if ("html".equals(entry.format)) {
+                    try (Writer writer = new OutputStreamWriter(Files.newOutputStream(resultPath),
+                            StandardCharsets.UTF_8)) {
+                        reportService.writeHtml(filledReport.getJasperPrint(), writer);
+                    }
+                } else {
+                    try (OutputStream outputStream = Files.newOutputStream(resultPath)) {
+                        reportService.writePdf(filledReport.getJasperPrint(), outputStream);
+                    }
+                }
+            }
+            entry.resultPath = resultPath;
+            entry.resultSize = Files.size(resultPath);
+            entry.status = ReportJob.Status.COMPLETED;
+        } catch (Exception e) {
+            log.warn("Report job {} ({}) failed: {}", entry.id, reportData.getJrxmlFileName(), e.getMessage());
+            entry.error = e.getMessage();
+            entry.status = ReportJob.Status.FAILED;
+            try {
+                Files.deleteIfExists(resultPath);
+            } catch (IOException ignored) {
+                // Removed by the next cleanup or on shutdown
+            }
+        } finally {
+            // Request data is no longer needed, let it be collected
+            entry.reportData = null;
+            entry.completedAt = System.currentTimeMillis();
+        }
+    }
+
+    private void deleteResult(JobEntry entry) {
+        if (entry.resultPath != null) {
+            try {
+                Files.deleteIfExists(entry.resultPath);
+            } catch (IOException e) {
+                log.warn("Could not delete result of job {}: {}", entry.id, e.getMessage());
+            }
+        }
+    }
+
+    /**
+     * Queued job, ordered by priority (highest first) then submission order
+     */
+    private class JobEntry implements Runnable, Comparable<JobEntry> {
+        final String id;
+        final String format;
+        final int priority;
+        final long sequenceNumber;
+        final String jrxmlFileName;
+        final long submittedAt = System.currentTimeMillis();
+        final Map<String, String> logContext = MDC.getCopyOfContextMap();
+        volatile ReportData reportData;
+        volatile ReportJob.Status status = ReportJob.Status.QUEUED;
+        volatile Long startedAt;
+        volatile Long completedAt;
+        volatile Path resultPath;
+        volatile Long resultSize;
+        volatile String error;
+        volatile ConversionErrorSummary conversionErrors;
+
+        JobEntry(String id, ReportData reportData, String format, int priority, long sequenceNumber) {
+            this.id = id;
+            this.reportData = reportData;
+            this.jrxmlFileName = reportData.getJrxmlFileName();
+            this.format = format;
+            this.priority = priority;
+            this.sequenceNumber = sequenceNumber;
+        }
+
+        @Override
+        public void run() {
+            ReportJobService.this.run(this);
+        }
+
+        @Override
+        public int compareTo(JobEntry other) {
+            int byPriority = Integer.compare(other.priority, priority);
+            return byPriority != 0 ? byPriority : Long.compare(sequenceNumber, other.sequenceNumber);
+        }
+
+        ReportJob toJob() {
+            ReportJob job = new ReportJob();
+            job.setId(id);
+            job.setStatus(status);
+            job.setJrxmlFileName(jrxmlFileName);
+            job.setExportFormat(format);
+            job.setPriority(priority);
+            job.setSubmittedAt(submittedAt);
+            job.setStartedAt(startedAt);
+            job.setCompletedAt(completedAt);
+            job.setResultSize(resultSize);
+            job.setError(error);
+            job.setConversionErrors(conversionErrors);
+            return job;
+        }
+    }
+}
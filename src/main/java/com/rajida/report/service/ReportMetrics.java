@@ -0,0 +1,166 @@
+package com.rajida.report.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import net.sf.jasperreports.engine.JasperPrint;
+import org.springframework.stereotype.Component;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Micrometer metrics of report rendering, exposed on /actuator/prometheus:
+ * report.phase timers (load, compile, convert, fill, export, write) tagged by
+ * template and format, render pool wait timers, row/page/output size summaries
+ * and cache hit counters.
+ */
+@Component
+public class ReportMetrics {
+
+    public static final String LOAD = "load";
+    public static final String COMPILE = "compile";
+    public static final String CONVERT = "convert";
+    public static final String FILL = "fill";
+    public static final String EXPORT = "export";
+    public static final String WRITE = "write";
+
+    /**
+     * Format tag of phases that run before a format is chosen
+     */
+    public static final String NO_FORMAT = "none";
+
+    /**
+     * Print property holding the JRXML file a report was filled from, so exports
+     * (also of cached prints) are tagged with the same template as the fill
+     */
+    static final String TEMPLATE_PROPERTY = "com.rajida.report.template";
+
+    private final MeterRegistry registry;
+
+    public ReportMetrics(MeterRegistry registry) {
+        this.registry = registry;
+    }
+
+    /**
+     * Record the duration of a phase, measured from a System.nanoTime() start
+     */
+    public void recordPhase(String phase, String template, String format, long startNanos) {
+        Timer.builder("report.phase")
+                .description("Time spent in each phase of rendering a report")
+                .tags("phase", phase, "template", template, "format", format)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Record how long a task waited for a thread of a render pool (render, input)
+     */
+    public void recordRenderWait(String pool, long queuedNanos) {
+        Timer.builder("report.render.wait")
+                .description("Time render work waited for a free render pool thread")
+                .tags("pool", pool)
+                .publishPercentileHistogram()
+                .register(registry)
+                .record(System.nanoTime() - queuedNanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void recordRows(String template, long rows) {
+        DistributionSummary.builder("report.rows")
+                .description("Data rows filled into a report")
+                .baseUnit("rows")
+                .tags("template", template)
+                .register(registry)
+                .record(rows);
+    }
+
+    public void recordPages(String template, int pages) {
+        DistributionSummary.builder("report.pages")
+                .description("Pages of a filled report")
+                .baseUnit("pages")
+                .tags("template", template)
+                .register(registry)
+                .record(pages);
+    }
+
+    public void recordOutputBytes(String template, String format, long bytes) {
+        DistributionSummary.builder("report.output")
+                .description("Size of exported report output")
+                .baseUnit("bytes")
+                .tags("template", template, "format", format)
+                .register(registry)
+                .record(bytes);
+    }
+
+    /**
+     * Count a lookup in one of the caches (compiled, print, output)
+     */
+    public void recordCacheLookup(String cache, boolean hit) {
+        Counter.builder("report.cache.lookups")
+                .description("Cache lookups by cache and result")
+                .tags("cache", cache, "result", hit ? "hit" : "miss")
+                .register(registry)
+                .increment();
+    }
+
+    /**
+     * Record pages of a filled report and tag it with its template for later exports
+     */
+    public void recordFilled(JasperPrint jasperPrint, String template) {
+        jasperPrint.setProperty(TEMPLATE_PROPERTY, template);
+        recordPages(template, jasperPrint.getPages().size());
+    }
+
+    /**
+     * Template a report was filled from, or its report name if unknown
+     */
+    public static String template(JasperPrint jasperPrint) {
+        String template = jasperPrint.getProperty(TEMPLATE_PROPERTY);
+        return template != null ? template : String.valueOf(jasperPrint.getName());
+    }
+
+    /**
+     * Wrap a response stream to measure the time and bytes of writing a response.
+     * Call finish() once the response has been completely written.
+     */
+    public ResponseMeter meterResponse(String template, String format, OutputStream outputStream) {
+        return new ResponseMeter(template, format, outputStream);
+    }
+
+    /**
+     * Counts bytes passed through to the response
+     */
+    public class ResponseMeter extends FilterOutputStream {
+        private final String template;
+        private final String format;
+        private final long start = System.nanoTime();
+        private long bytes;
+
+        private ResponseMeter(String template, String format, OutputStream outputStream) {
+            super(outputStream);
+            this.template = template;
+            this.format = format;
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            bytes++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            bytes += len;
+        }
+
+        public void finish() {
+            recordPhase(WRITE, template, format, start);
+            recordOutputBytes(template, format, bytes);
+        }
+    }
+}
@@ -0,0 +1,182 @@
+package com.rajida.report.service;
+
+import net.sf.jasperreports.engine.JRBand;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRExpression;
+import net.sf.jasperreports.engine.JROrigin;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintFrame;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JRPrintText;
+import net.sf.jasperreports.engine.JRStyle;
+import net.sf.jasperreports.engine.JRTextField;
+import net.sf.jasperreports.engine.JRVariable;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.type.ResetTypeEnum;
+import net.sf.jasperreports.engine.util.JRElementsVisitor;
+import net.sf.jasperreports.engine.util.JRVisitorSupport;
+
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Splitting of converted rows into partitions on a group key, and merging of the
+ * reports filled from them into one report. Partitions only split between runs
+ * of equal keys, so a group is never divided over two fills. Each partition is a
+ * report of its own, so only templates written for it (see unsupportedReason) are
+ * partitioned.
+ */
+final class ReportPartitions {
+
+    /**
+     * Report property naming the field to partition on (a request's partitionBy takes precedence)
+     */
+    static final String PARTITION_BY_PROPERTY = "com.rajida.report.partition.by";
+
+    /**
+     * Text element property marking page numbers to rewrite after merging, a MessageFormat
+     * pattern with {0} for the page number and {1} for the page count, e.g. "Page {0} of {1}"
+     */
+    static final String PAGE_NUMBER_PROPERTY = "com.rajida.report.page.number";
+
+    /**
+     * Parameters of each partition fill, e.g. to print the title only in the first
+     * partition (PARTITION_FIRST) and the summary only in the last (PARTITION_LAST)
+     */
+    static final String PARTITION_INDEX = "PARTITION_INDEX";
+    static final String PARTITION_FIRST = "PARTITION_FIRST";
+    static final String PARTITION_LAST = "PARTITION_LAST";
+
+    /**
+     * Variables that count pages over the whole report
+     */
+    private static final List<String> PAGE_VARIABLES = List.of(JRVariable.PAGE_NUMBER,
+            JRVariable.MASTER_CURRENT_PAGE, JRVariable.MASTER_TOTAL_PAGES);
+
+    private ReportPartitions() {
+    }
+
+    /**
+     * Why the report would print differently when filled in partitions, null if it can be partitioned.
+     * A partitionable report marks all its page numbers with PAGE_NUMBER_PROPERTY, has no report-level
+     * variables or last page footer, and declares PARTITION_FIRST if it has a title and PARTITION_LAST
+     * if it has a summary (to print them only once).
+     */
+    static String unsupportedReason(JasperReport jasperReport) {
+        for (JRVariable variable : jasperReport.getVariables()) {
+            if (!variable.isSystemDefined() && variable.getResetTypeValue() == ResetTypeEnum.REPORT) {
+                return "report-level variable " + variable.getName() + " would be computed per partition";
+            }
+        }
+        if (hasContent(jasperReport.getTitle()) && !hasParameter(jasperReport, PARTITION_FIRST)) {
+            return "the title would repeat, the report does not declare " + PARTITION_FIRST;
+        }
+        if (hasContent(jasperReport.getSummary()) && !hasParameter(jasperReport, PARTITION_LAST)) {
+            return "the summary would repeat, the report does not declare " + PARTITION_LAST;
+        }
+        if (hasContent(jasperReport.getLastPageFooter())) {
+            return "the last page footer would repeat";
+        }
+
+        List<String> reasons = new ArrayList<>();
+        JRElementsVisitor.visitReport(jasperReport, new JRVisitorSupport() {
+            @Override
+            public void visitTextField(JRTextField textField) {
+                String text = expressionText(textField.getExpression());
+                if (text.contains("$V{" + JRVariable.REPORT_COUNT + "}")) {
+                    reasons.add(JRVariable.REPORT_COUNT + " would restart per partition");
+                }
+                boolean marked = textField.hasProperties()
+                        && textField.getPropertiesMap().getProperty(PAGE_NUMBER_PROPERTY) != null;
+                for (String variable : PAGE_VARIABLES) {
+                    if (!marked && text.contains("$V{" + variable + "}")) {
+                        reasons.add(variable + " would restart per partition, mark the field with "
+                                + PAGE_NUMBER_PROPERTY);
+                    }
+                }
+            }
+        });
+        return reasons.isEmpty() ? null : reasons.get(0);
+    }
+
+    /**
+     * Split rows ordered by the key at keyIndex into at most maxPartitions partitions
+     * of similar size, cutting only where the key changes
+     */
+    static List<List<Object[]>> split(List<Object[]> rows, int keyIndex, int maxPartitions) {
+        List<List<Object[]>> partitions = new ArrayList<>();
+        int target = (rows.size() + maxPartitions - 1) / maxPartitions;
+        int start = 0;
+        for (int i = 1; i <= rows.size(); i++) {
+            boolean keyChanges = i == rows.size()
+                    || !Objects.equals(rows.get(i)[keyIndex], rows.get(i - 1)[keyIndex]);
+            if (keyChanges && (i - start >= target || i == rows.size())) {
+                partitions.add(rows.subList(start, i));
+                start = i;
+            }
+        }
+        return partitions;
+    }
+
+    /**
+     * Append the pages of all reports to the first one, in order, and rewrite marked page numbers
+     */
+    static JasperPrint merge(List<JasperPrint> jasperPrints) throws JRException {
+        JasperPrint merged = jasperPrints.get(0);
+        for (JasperPrint jasperPrint : jasperPrints.subList(1, jasperPrints.size())) {
+            for (JRStyle style : jasperPrint.getStyles()) {
+                merged.addStyle(style, true);
+            }
+            for (JROrigin origin : jasperPrint.getOrigins()) {
+                if (!merged.getOriginsMap().containsKey(origin)) {
+                    merged.addOrigin(origin);
+                }
+            }
+            for (JRPrintPage page : jasperPrint.getPages()) {
+                merged.addPage(page);
+            }
+        }
+        renumberPages(merged);
+        return merged;
+    }
+
+    private static boolean hasContent(JRBand band) {
+        return band != null && band.getHeight() > 0;
+    }
+
+    private static boolean hasParameter(JasperReport jasperReport, String name) {
+        return Arrays.stream(jasperReport.getParameters()).map(JRParameter::getName).anyMatch(name::equals);
+    }
+
+    private static String expressionText(JRExpression expression) {
+        return expression != null && expression.getText() != null ? expression.getText() : "";
+    }
+
+    private static void renumberPages(JasperPrint jasperPrint) {
+        List<JRPrintPage> pages = jasperPrint.getPages();
+        for (int i = 0; i < pages.size(); i++) {
+            renumber(pages.get(i).getElements(), i + 1, pages.size());
+        }
+    }
+
+    private static void renumber(List<JRPrintElement> elements, int pageNumber, int pageCount) {
+        for (JRPrintElement element : elements) {
+            if (element instanceof JRPrintFrame) {
+                renumber(((JRPrintFrame) element).getElements(), pageNumber, pageCount);
+            } else if (element instanceof JRPrintText && element.hasProperties()) {
+                String pattern = element.getPropertiesMap().getProperty(PAGE_NUMBER_PROPERTY);
+                if (pattern != null) {
+                    JRPrintText text = (JRPrintText) element;
+                    text.setText(MessageFormat.format(pattern, String.valueOf(pageNumber), String.valueOf(pageCount)));
+                    text.setTextTruncateIndex(null);
+                    text.setLineBreakOffsets(null);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.rajida.report.service;
+
+import com.rajida.report.model.ReportData;
+import com.rajida.report.model.ReportPrint;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperPrint;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Service;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Locale;
+import java.util.UUID;
+
+/**
+ * Fill once, export many: filled reports are cached under a hash of template
+ * content, parameters and data, and exported from the cache to any format.
+ * Prints are never page-virtualized, whatever the request's virtualizer mode.
+ * Prints of query-file reports are never shared between requests, as their data
+ * is read from the database at fill time.
+ */
+@Service
+public class ReportPrintService {
+
+    public static final String PDF = "pdf";
+    public static final String HTML = "html";
+    public static final String XLSX = "xlsx";
+    public static final String CSV = "csv";
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private CompiledReportCache compiledReportCache;
+
+    @Autowired
+    private PrintCache printCache;
+
+    @Autowired
+    private ReportRequestHasher reportRequestHasher;
+
+    @Autowired
+    private ReportMetrics reportMetrics;
+
+    /**
+     * Fill a report and cache it, unless an identical request is already cached
+     *
+     * @throws PrintTooLargeException if the filled report does not fit in the print cache
+     */
+    public ReportPrint createPrint(ReportData reportData) throws Exception {
+        if (reportData.getJrxmlFileName() == null) {
+            throw new IllegalArgumentException("jrxmlFileName is required");
+        }
+        CompiledReport compiledReport = compiledReportCache.get(reportData.getJrxmlFileName());
+
+        // Key is computed before filling, which adds engine parameters to the map
+        String printId = reportRequestHasher.hash(compiledReport, reportData);
+        if (reportData.getQueryFile() != null) {
+            // Rows come from the database, not the request: never reuse a print, give each its own id
+            printId = printId + "-" + UUID.randomUUID();
+        } else {
+            PrintCache.Entry cached = printCache.get(printId);
+            reportMetrics.recordCacheLookup("print", cached != null);
+            if (cached != null) {
+                return toPrint(cached, true);
+            }
+        }
+
+        // The print outlives the fill, so its pages cannot stay in a virtualizer's swap or
+        // compressed store: fill in heap, bounded by the print cache entry size instead
+        reportData.setVirtualizer(ReportVirtualizerFactory.NONE);
+        try (FilledReport filledReport = reportService.fillReport(reportData)) {
+            PrintCache.Entry entry = printCache.put(printId, reportData.getJrxmlFileName(),
+                    filledReport.getJasperPrint());
+            if (entry == null) {
+                throw new PrintTooLargeException(
+                        "Report is too large to cache, use the export endpoints instead");
+            }
+            ReportPrint print = toPrint(entry, false);
+            if (filledReport.hasConversionErrors()) {
+                print.setConversionErrors(filledReport.getConversionErrors().toSummary());
+            }
+            return print;
+        }
+    }
+
+    /**
+     * Get a cached print, or null if it does not exist or has expired
+     */
+    public ReportPrint getPrint(String printId) {
+        PrintCache.Entry entry = printCache.get(printId);
+        return entry != null ? toPrint(entry, true) : null;
+    }
+
+    /**
+     * Load a cached filled report
+     */
+    public JasperPrint loadPrint(String printId) throws FileNotFoundException, JRException {
+        PrintCache.Entry entry = printCache.get(printId);
+        if (entry == null) {
+            throw new FileNotFoundException("Report print not found or expired: " + printId);
+        }
+        return printCache.load(entry);
+    }
+
+    /**
+     * Normalize and check an export format
+     */
+    public static String checkFormat(String format) {
+        String normalized = format != null ? format.toLowerCase(Locale.ROOT) : "";
+        switch (normalized) {
+            case PDF:
+            case HTML:
+            case XLSX:
+            case CSV:
+                return normalized;
+            default:
+                throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+    }
+
+    /**
+     * Export a filled report in the given format (see checkFormat)
+     */
+    public void export(JasperPrint jasperPrint, String format, OutputStream outputStream)
+            throws IOException, JRException {
+        switch (format) {
+            case PDF:
+                reportService.writePdf(jasperPrint, outputStream);
+                break;
+            case XLSX:
+                reportService.writeXlsx(jasperPrint, outputStream);
+                break;
+            case HTML:
+            case CSV:
+                Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+                if (HTML.equals(format)) {
+                    reportService.writeHtml(jasperPrint, writer);
+                } else {
+                    reportService.writeCsv(jasperPrint, writer);
+                }
+                writer.flush();
+                break;
+            default:
+                throw new IllegalArgumentException("Unsupported export format: " + format);
+        }
+    }
+
+    /**
+     * Check a 1-based, inclusive page range against a report's page count
+     */
+    public static void checkPageRange(int fromPage, int toPage, int pageCount) {
+        if (fromPage < 1 || toPage > pageCount || fromPage > toPage) {
+            throw new IllegalArgumentException(
+                    "Invalid page range " + fromPage + "-" + toPage + ", report has " + pageCount + " pages");
+        }
+    }
+
+    /**
+     * Export pages fromPage..toPage (1-based, inclusive, see checkPageRange) of a filled report to HTML
+     */
+    public void exportHtmlPages(JasperPrint jasperPrint, int fromPage, int toPage, OutputStream outputStream)
+            throws JRException, IOException {
+        Writer writer = new OutputStreamWriter(outputStream, StandardCharsets.UTF_8);
+        reportService.writeHtml(jasperPrint, writer, fromPage - 1, toPage - 1);
+        writer.flush();
+    }
+
+    private static ReportPrint toPrint(PrintCache.Entry entry, boolean cached) {
+        ReportPrint print = new ReportPrint();
+        print.setPrintId(entry.getPrintId());
+        print.setJrxmlFileName(entry.getJrxmlFileName());
+        print.setPageCount(entry.getPageCount());
+        print.setSize(entry.getSize());
+        print.setCreatedAt(entry.getCreatedAt());
+        print.setCached(cached);
+        return print;
+    }
+}
@@ -0,0 +1,56 @@
+package com.rajida.report.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.rajida.report.model.ReportData;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.security.DigestOutputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Stable content hash of a report request: SHA-256 of the template content and
+ * the request's parameters, query file and data as canonical JSON (map keys
+ * sorted), streamed into the digest. Identical requests hash the same however
+ * their JSON was ordered.
+ */
+@Component
+public class ReportRequestHasher {
+
+    private final ObjectWriter canonicalWriter;
+
+    public ReportRequestHasher(ObjectMapper objectMapper) {
+        this.canonicalWriter = objectMapper.writer().with(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS);
+    }
+
+    /**
+     * Hash a request before it is filled (filling adds engine parameters to the map)
+     */
+    public String hash(CompiledReport compiledReport, ReportData reportData) throws IOException {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+
+        Map<String, Object> request = new LinkedHashMap<>();
+        request.put("template", compiledReport.getContentHash());
+        request.put("parameters", reportData.getParameters() != null ? reportData.getParameters() : new HashMap<>());
+        request.put("queryFile", reportData.getQueryFile());
+        request.put("dataRecords", reportData.getDataRecords());
+        request.put("partitionBy", reportData.getPartitionBy());
+        try (OutputStream outputStream = new DigestOutputStream(OutputStream.nullOutputStream(), digest)) {
+            canonicalWriter.writeValue(outputStream, request);
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+}
@@ -0,0 +1,158 @@
+package com.rajida.report.service;
+
+import net.sf.jasperreports.engine.export.HtmlResourceHandler;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * Content-addressed store of the images of HTML exports. Each image is saved once
+ * under the SHA-256 of its bytes and referenced from the HTML by URL, so the markup
+ * stays small and browsers download an image (e.g. a branch logo) only once, however
+ * many reports use it. Images not stored again within the TTL are removed.
+ * Point the directory at a shared volume when several instances serve the same HTML.
+ */
+@Component
+public class ReportResourceStore {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportResourceStore.class);
+
+    private static final Pattern RESOURCE_NAME = Pattern.compile("[0-9a-f]{64}\\.[a-z0-9]{1,5}");
+
+    private final boolean enabled;
+    private final String baseUri;
+    private final Path dir;
+    private final long ttlMillis;
+
+    // Resources known to be on disk, with the time their file was last touched
+    private final Map<String, Long> stored = new ConcurrentHashMap<>();
+
+    public ReportResourceStore(@Value("${report.resources.enabled:true}") boolean enabled,
+            @Value("${report.resources.base-uri:/api/reports/resources/}") String baseUri,
+            @Value("${report.resources.dir:${java.io.tmpdir}/rajida-report-resources}") String dir,
+            @Value("${report.resources.ttl-hours:24}") long ttlHours) throws IOException {
+        this.enabled = enabled;
+        this.baseUri = baseUri.endsWith("/") ? baseUri : baseUri + "/";
+        this.dir = Files.createDirectories(Paths.get(dir));
+        this.ttlMillis = TimeUnit.HOURS.toMillis(ttlHours);
+    }
+
+    /**
+     * False when images are embedded in the HTML as data URIs instead
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Image handler for one HTML export, storing each image it receives
+     */
+    public HtmlResourceHandler newImageHandler() {
+        return new ImageHandler();
+    }
+
+    /**
+     * File of a stored resource
+     *
+     * @throws FileNotFoundException if the name is not a resource name or the resource expired
+     */
+    public Path getPath(String name) throws FileNotFoundException {
+        if (!RESOURCE_NAME.matcher(name).matches()) {
+            throw new FileNotFoundException("Resource not found: " + name);
+        }
+        Path path = dir.resolve(name);
+        if (!Files.isRegularFile(path)) {
+            throw new FileNotFoundException("Resource not found: " + name);
+        }
+        return path;
+    }
+
+    /**
+     * Store resource content and return its name
+     */
+    String store(byte[] data, String extension) throws IOException {
+        String name = CompiledReportCache.sha256(data) + "." + extension;
+        long now = System.currentTimeMillis();
+        Long touched = stored.get(name);
+        if (touched != null && now - touched < ttlMillis / 4) {
+            return name;
+        }
+
+        Path path = dir.resolve(name);
+        if (Files.exists(path)) {
+            // Stored before (possibly by another instance), keep it from expiring
+            Files.setLastModifiedTime(path, FileTime.fromMillis(now));
+        } else {
+            Path tempPath = Files.createTempFile(dir, ".resource-", ".tmp");
+            try {
+                Files.write(tempPath, data);
+                Files.move(tempPath, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } finally {
+                Files.deleteIfExists(tempPath);
+            }
+        }
+        stored.put(name, now);
+        return name;
+    }
+
+    /**
+     * Remove resources that were not stored again within the TTL
+     */
+    @Scheduled(fixedDelayString = "${report.resources.cleanup-interval-ms:3600000}")
+    public void removeExpired() {
+        long cutoff = System.currentTimeMillis() - ttlMillis;
+        try (Stream<Path> paths = Files.list(dir)) {
+            paths.forEach(path -> {
+                try {
+                    if (Files.getLastModifiedTime(path).toMillis() < cutoff) {
+                        stored.remove(path.getFileName().toString());
+                        Files.deleteIfExists(path);
+                    }
+                } catch (IOException e) {
+                    log.warn("Could not remove expired resource {}: {}", path, e.getMessage());
+                }
+            });
+        } catch (IOException e) {
+            log.warn("Could not list resources in {}: {}", dir, e.getMessage());
+        }
+    }
+
+    /**
+     * Maps the exporter's per-export image names (img_0_0_1.png) to stored resource URLs
+     */
+    private class ImageHandler implements HtmlResourceHandler {
+        private final Map<String, String> paths = new HashMap<>();
+
+        @Override
+        public void handleResource(String id, byte[] data) {
+            int dot = id.lastIndexOf('.');
+            String extension = dot >= 0 ? id.substring(dot + 1).toLowerCase() : "bin";
+            try {
+                paths.put(id, baseUri + store(data, extension));
+            } catch (IOException e) {
+                throw new IllegalStateException("Could not store image " + id + ": " + e.getMessage(), e);
+            }
+        }
+
+        @Override
+        public String getResourcePath(String id) {
+            return paths.get(id);
+        }
+    }
+}
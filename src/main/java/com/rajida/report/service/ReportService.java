@@ -1,13 +1,39 @@
 package com.rajida.report.service;
 
 import net.sf.jasperreports.engine.*;
-import net.sf.jasperreports.engine.data.JRMapArrayDataSource;
 import net.sf.jasperreports.engine.export.HtmlExporter;
+import net.sf.jasperreports.engine.export.JRCsvExporter;
 import net.sf.jasperreports.engine.export.JRPdfExporter;
+import net.sf.jasperreports.engine.export.ooxml.JRXlsxExporter;
+import net.sf.jasperreports.engine.fill.JRAbstractLRUVirtualizer;
 import net.sf.jasperreports.engine.util.JRLoader;
+import net.sf.jasperreports.export.Exporter;
+import net.sf.jasperreports.export.ExporterInput;
 import net.sf.jasperreports.export.SimpleExporterInput;
 import net.sf.jasperreports.export.SimpleHtmlExporterOutput;
+import net.sf.jasperreports.export.SimpleHtmlReportConfiguration;
+import net.sf.jasperreports.export.SimpleOutputStreamExporterOutput;
+import net.sf.jasperreports.export.SimpleWriterExporterOutput;
+import net.sf.jasperreports.export.SimpleXlsxReportConfiguration;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.dataformat.cbor.CBORFactory;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import com.rajida.report.model.CompileStatus;
+import com.rajida.report.model.ReportData;
+import com.rajida.report.model.TemplateInfo;
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.jdbc.core.PreparedStatementCallback;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
@@ -15,40 +41,84 @@ import java.io.*;
 import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
-import java.sql.Timestamp;
-import java.time.LocalDateTime;
-import java.time.format.DateTimeFormatter;
+import java.nio.file.StandardCopyOption;
+import java.sql.ResultSet;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.stream.Collectors;
 
 @Service
 public class ReportService {
 
+    private static final Logger log = LoggerFactory.getLogger(ReportService.class);
+
     @Value("${upload.dir:uploads}")
     private String uploadDir;
 
+    @Autowired
+    private CompiledReportCache compiledReportCache;
+
+    @Autowired
+    private ReportCompilationService reportCompilationService;
+
+    @Autowired
+    private TemplateIndex templateIndex;
+
+    @Autowired
+    private ReportResourceStore reportResourceStore;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ReportVirtualizerFactory reportVirtualizerFactory;
+
+    @Autowired
+    private RenderExecutor renderExecutor;
+
+    @Autowired
+    private QueryRepository queryRepository;
+
+    // Absent when no report database is configured
+    @Autowired(required = false)
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ReportMetrics reportMetrics;
+
+    private ObjectMapper smileMapper;
+    private ObjectMapper cborMapper;
+
+    @Value("${report.columnar.min-rows:5000}")
+    private int columnarMinRows;
+
+    @Value("${report.columnar.max-dictionary-size:4096}")
+    private int columnarMaxDictionarySize;
+
+    @Value("${report.partition.min-rows:10000}")
+    private int partitionMinRows;
+
+    @Value("${report.partition.max-partitions:0}")
+    private int partitionMaxPartitions;
+
+    @Value("${report.conversion.max-error-samples:5}")
+    private int maxErrorSamples;
+
     /**
-     * Configure JasperReports to handle missing fonts gracefully
+     * Smile and CBOR readers with the configuration of the JSON mapper
      */
-    static {
-        // Ignore missing fonts and use default font
-        System.setProperty("net.sf.jasperreports.awt.ignore.missing.font", "true");
-        System.setProperty("net.sf.jasperreports.default.font.name", "DejaVuSans");
-        // For HTML export
-        System.setProperty("net.sf.jasperreports.html.skip.page", "false");
-        // UTF-8 encoding for Unicode support
-        System.setProperty("file.encoding", "UTF-8");
-        System.setProperty("sun.jnu.encoding", "UTF-8");
-        // Enable font embedding in PDF for better Unicode support
-        System.setProperty("net.sf.jasperreports.pdf.font.embedded", "true");
-        // Use DejaVuSans as fallback for missing fonts
-        System.setProperty("net.sf.jasperreports.awt.detect.greek.text", "true");
+    @PostConstruct
+    void createBinaryMappers() {
+        smileMapper = objectMapper.copyWith(new SmileFactory());
+        cborMapper = objectMapper.copyWith(new CBORFactory());
     }
 
     /**
      * Upload JRXML file to server
-     * If file already exists, returns success without re-uploading
+     * If file already exists, it is overwritten
+     * A new or changed template is compiled in the background (see TemplateIndex)
      */
     public String uploadJrxmlFile(MultipartFile file) throws IOException {
         if (file.isEmpty()) {
@@ -67,13 +137,17 @@ public class ReportService {
         String fileName = file.getOriginalFilename();
         Path filePath = uploadPath.resolve(fileName);
 
-        // Always save/overwrite file (delete if exists first)
-        if (Files.exists(filePath)) {
-            Files.delete(filePath);
+        // Save next to the target and move it in place, so watchers never see a partial file
+        Path tempPath = Files.createTempFile(uploadPath, ".upload-", ".tmp");
+        try {
+            file.transferTo(tempPath);
+            Files.move(tempPath, filePath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempPath);
         }
 
-        // Save file
-        file.transferTo(filePath.toFile());
+        // Publishes the change: drops the compiled previous upload and compiles the new one
+        templateIndex.refresh(fileName);
 
         return fileName;
     }
@@ -83,256 +157,613 @@ public class ReportService {
      */
     public byte[] exportToPdfWithData(String jrxmlFileName, Map<String, Object> parameters,
             List<Map<String, Object>> dataRecords) throws Exception {
-        File jrxmlFile = new File(Paths.get(uploadDir, jrxmlFileName).toString());
+        try (FilledReport filledReport = fillReport(jrxmlFileName, parameters, dataRecords, null)) {
+            // Export to PDF
+            ByteArrayOutputStream pdfOutputStream = new ByteArrayOutputStream();
+            writePdf(filledReport.getJasperPrint(), pdfOutputStream);
 
-        if (!jrxmlFile.exists()) {
-            throw new FileNotFoundException("JRXML file not found: " + jrxmlFileName);
+            return pdfOutputStream.toByteArray();
         }
+    }
 
-        // Compile JRXML to JasperReport
-        JasperReport jasperReport = JasperCompileManager.compileReport(jrxmlFile.getAbsolutePath());
+    /**
+     * Fill JRXML with data, ready to be exported to PDF
+     * The caller must close the returned report after exporting it
+     */
+    public FilledReport fillReport(String jrxmlFileName, Map<String, Object> parameters,
+            List<Map<String, Object>> dataRecords, String virtualizerMode) throws Exception {
+        // Get compiled JasperReport (compiled once per JRXML content)
+        return fillReport(compiledReportCache.get(jrxmlFileName), parameters, dataRecords, virtualizerMode);
+    }
+
+    /**
+     * Fill an already compiled report with data
+     * The caller must close the returned report after exporting it
+     */
+    public FilledReport fillReport(CompiledReport compiledReport, Map<String, Object> parameters,
+            List<Map<String, Object>> dataRecords, String virtualizerMode) throws Exception {
+        return fillReport(compiledReport, parameters, dataRecords, virtualizerMode, null);
+    }
+
+    /**
+     * Fill an already compiled report with data. Large datasets are filled in parallel partitions
+     * when partitionBy (or the template's com.rajida.report.partition.by property) names a field
+     * and the template is written to be partitioned, unless the fill is virtualized.
+     * Records of large (columnar or partitioned) datasets are cleared from dataRecords once converted.
+     * The caller must close the returned report after exporting it
+     */
+    public FilledReport fillReport(CompiledReport compiledReport, Map<String, Object> parameters,
+            List<Map<String, Object>> dataRecords, String virtualizerMode, String partitionBy) throws Exception {
+        JasperReport jasperReport = compiledReport.getJasperReport();
+        String template = compiledReport.getFileName();
 
-        // Prepare parameters with font handling
         Map<String, Object> reportParams = parameters != null ? parameters : new HashMap<>();
         reportParams.put(JRParameter.IS_IGNORE_PAGINATION, false);
 
-        // Convert data records to correct types
-        List<Map<String, Object>> convertedRecords = convertDataRecords(dataRecords, jasperReport);
+        String partitionField = partitionBy != null ? partitionBy
+                : jasperReport.getProperty(ReportPartitions.PARTITION_BY_PROPERTY);
+        if (partitionField != null && dataRecords != null && dataRecords.size() >= partitionMinRows
+                && renderExecutor.getPoolSize() > 1) {
+            String unsupportedReason = ReportPartitions.unsupportedReason(jasperReport);
+            if (unsupportedReason != null) {
+                log.warn("{}: not partitioning on {}, {}", template, partitionField, unsupportedReason);
+            } else if (reportVirtualizerFactory.willVirtualize(virtualizerMode, jasperReport, dataRecords.size())) {
+                // Partitions are merged in memory, a report large enough to virtualize is filled in one piece
+                log.debug("{}: not partitioning on {}, the fill is virtualized", template, partitionField);
+            } else {
+                return fillPartitioned(compiledReport, reportParams, dataRecords, partitionField);
+            }
+        }
 
-        // Create data source from records
-        JRDataSource dataSource;
-        if (convertedRecords != null && !convertedRecords.isEmpty()) {
-            dataSource = new JRMapArrayDataSource(convertedRecords.toArray(new Map[0]));
-        } else {
-            dataSource = new JREmptyDataSource();
+        // Convert data records to correct types and create data source from them
+        // (counted first, large datasets are cleared from dataRecords once converted)
+        int rowCount = dataRecords != null ? dataRecords.size() : 0;
+        long convertStart = System.nanoTime();
+        ConversionErrors conversionErrors = new ConversionErrors(maxErrorSamples);
+        JRDataSource dataSource = createDataSource(compiledReport, dataRecords, conversionErrors);
+        logConversionErrors(template, conversionErrors);
+        reportMetrics.recordPhase(ReportMetrics.CONVERT, template, ReportMetrics.NO_FORMAT, convertStart);
+        reportMetrics.recordRows(template, rowCount);
+
+        // Swap pages out of the heap for large reports
+        JRAbstractLRUVirtualizer virtualizer = reportVirtualizerFactory.create(
+                virtualizerMode, jasperReport, rowCount);
+        if (virtualizer != null) {
+            reportParams.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
         }
 
-        // Fill report with data - catch font errors and retry with fallback
+        // Fill report with data, fonts were resolved when the template was compiled
         JasperPrint jasperPrint;
         try {
-            jasperPrint = JasperFillManager.fillReport(
-                    jasperReport,
-                    reportParams,
-                    dataSource);
+            jasperPrint = fill(template, () -> JasperFillManager.getInstance(DefaultJasperReportsContext.getInstance())
+                    .fill(jasperReport, reportParams, dataSource));
         } catch (Exception e) {
-            if (e.getMessage() != null && e.getMessage().contains("Font")) {
-                // Font error - enable font ignore and retry
-                System.setProperty("net.sf.jasperreports.awt.ignore.missing.font", "true");
-                System.setProperty("java.awt.headless", "true");
-                jasperPrint = JasperFillManager.fillReport(
-                        jasperReport,
-                        reportParams,
-                        dataSource);
-            } else {
-                throw e;
+            if (virtualizer != null) {
+                virtualizer.cleanup();
             }
+            throw e;
         }
 
-        // Export to PDF using modern API with Unicode support
-        ByteArrayOutputStream pdfOutputStream = new ByteArrayOutputStream();
-        JRPdfExporter exporter = new JRPdfExporter();
-        exporter.setExporterInput(new SimpleExporterInput(jasperPrint));
-        exporter.setExporterOutput(new net.sf.jasperreports.export.SimpleOutputStreamExporterOutput(pdfOutputStream));
+        reportMetrics.recordFilled(jasperPrint, template);
+        return new FilledReport(jasperPrint, virtualizer, conversionErrors);
+    }
 
-        // Configure PDF export properties for Unicode/Sinhala support
-        net.sf.jasperreports.export.SimplePdfExporterConfiguration exportConfig = new net.sf.jasperreports.export.SimplePdfExporterConfiguration();
-        exportConfig.setMetadataTitle("Report");
-        exportConfig.setMetadataAuthor("Rajida Report Service");
-        exportConfig.setCompressed(true);
-        exporter.setConfiguration(exportConfig);
+    /**
+     * Fill contiguous partitions of rows that are ordered by a group key concurrently with the
+     * same compiled report, and merge the filled pages in order. Only used for fills that are
+     * not virtualized, as the merged pages are kept in memory.
+     */
+    private FilledReport fillPartitioned(CompiledReport compiledReport, Map<String, Object> reportParams,
+            List<Map<String, Object>> dataRecords, String partitionBy) throws Exception {
+        JasperReport jasperReport = compiledReport.getJasperReport();
+        String template = compiledReport.getFileName();
+        FieldConverterPlan plan = compiledReport.getConverterPlan();
+        int keyIndex = plan.indexOf(partitionBy);
+        if (keyIndex < 0) {
+            throw new IllegalArgumentException("partitionBy " + partitionBy + " is not a field of " + template);
+        }
 
-        exporter.exportReport();
+        long convertStart = System.nanoTime();
+        ConversionErrors conversionErrors = new ConversionErrors(maxErrorSamples);
+        List<Object[]> rows = plan.convert(dataRecords, conversionErrors);
+        releaseRecords(dataRecords);
+        logConversionErrors(template, conversionErrors);
+        reportMetrics.recordPhase(ReportMetrics.CONVERT, template, ReportMetrics.NO_FORMAT, convertStart);
+        reportMetrics.recordRows(template, rows.size());
+
+        int maxPartitions = partitionMaxPartitions > 0 ? partitionMaxPartitions : renderExecutor.getPoolSize();
+        List<List<Object[]>> partitions = ReportPartitions.split(rows, keyIndex, maxPartitions);
+        JasperFillManager fillManager = JasperFillManager.getInstance(DefaultJasperReportsContext.getInstance());
+        List<RenderExecutor.RenderTask<JasperPrint, JRException>> fills = new ArrayList<>(partitions.size());
+        for (int i = 0; i < partitions.size(); i++) {
+            Map<String, Object> partitionParams = new HashMap<>(reportParams);
+            partitionParams.put(ReportPartitions.PARTITION_INDEX, i);
+            partitionParams.put(ReportPartitions.PARTITION_FIRST, i == 0);
+            partitionParams.put(ReportPartitions.PARTITION_LAST, i == partitions.size() - 1);
+            List<Object[]> partition = partitions.get(i);
+            fills.add(() -> fillManager.fill(jasperReport, partitionParams,
+                    new IndexedRecordDataSource(plan, partition)));
+        }
 
-        return pdfOutputStream.toByteArray();
+        // Timed from submitting the first partition to the last one being merged
+        long fillStart = System.nanoTime();
+        JasperPrint jasperPrint = ReportPartitions.merge(renderExecutor.executeAll(fills));
+        reportMetrics.recordPhase(ReportMetrics.FILL, template, ReportMetrics.NO_FORMAT, fillStart);
+        reportMetrics.recordFilled(jasperPrint, template);
+        log.debug("{}: filled {} rows in {} partitions on {}, {} pages", template, rows.size(), partitions.size(),
+                partitionBy, jasperPrint.getPages().size());
+        return new FilledReport(jasperPrint, null, conversionErrors);
     }
 
     /**
-     * Convert data records - normalize numeric types for JasperReports
+     * Fill the report of a request, with rows from its query file or its dataRecords
+     * The caller must close the returned report after exporting it
      */
-    private List<Map<String, Object>> convertDataRecords(List<Map<String, Object>> dataRecords,
-            JasperReport jasperReport) {
-        List<Map<String, Object>> convertedRecords = new java.util.ArrayList<>();
+    public FilledReport fillReport(ReportData reportData) throws Exception {
+        if (reportData.getJrxmlFileName() == null) {
+            throw new IllegalArgumentException("jrxmlFileName is required");
+        }
+        if (reportData.getQueryFile() != null) {
+            return fillReportFromQuery(reportData);
+        }
+        return fillReport(compiledReportCache.get(reportData.getJrxmlFileName()),
+                reportData.getParameters() != null ? reportData.getParameters() : new HashMap<>(),
+                reportData.getDataRecords(), reportData.getVirtualizer(), reportData.getPartitionBy());
+    }
 
-        // Build field type map
-        Map<String, String> fieldTypeMap = new HashMap<>();
-        JRField[] fields = jasperReport.getFields();
-        if (fields != null) {
-            for (JRField field : fields) {
-                fieldTypeMap.put(field.getName(), field.getValueClassName());
-            }
+    /**
+     * Reject a request naming a queryFile when no report database is configured
+     */
+    public void checkQuerySupported(ReportData reportData) {
+        if (reportData.getQueryFile() != null && jdbcTemplate == null) {
+            throw new IllegalArgumentException(
+                    "queryFile is not supported: no report database is configured (REPORT_DB_URL)");
         }
+    }
 
-        for (Map<String, Object> record : dataRecords) {
-            Map<String, Object> convertedRecord = new HashMap<>();
-
-            for (String fieldName : record.keySet()) {
-                Object value = record.get(fieldName);
-
-                // Try to convert based on field type
-                String fieldClass = fieldTypeMap.get(fieldName);
-
-                if (fieldClass != null && value != null) {
-                    try {
-                        if ("java.lang.Double".equals(fieldClass) && !(value instanceof Double)) {
-                            // Convert to Double
-                            if (value instanceof Number) {
-                                value = ((Number) value).doubleValue();
-                            } else if (value instanceof String) {
-                                value = Double.parseDouble((String) value);
-                            }
-                        } else if ("java.lang.Integer".equals(fieldClass) && !(value instanceof Integer)) {
-                            // Convert to Integer
-                            if (value instanceof Number) {
-                                value = ((Number) value).intValue();
-                            } else if (value instanceof String) {
-                                value = Integer.parseInt((String) value);
-                            }
-                        } else if ("java.lang.Long".equals(fieldClass) && !(value instanceof Long)) {
-                            // Convert to Long
-                            if (value instanceof Number) {
-                                value = ((Number) value).longValue();
-                            } else if (value instanceof String) {
-                                value = Long.parseLong((String) value);
-                            }
-                        } else if ("java.sql.Timestamp".equals(fieldClass) && !(value instanceof Timestamp)) {
-                            // Convert to Timestamp from ISO date string
-                            if (value instanceof String) {
-                                String dateStr = (String) value;
-                                // Parse ISO format: 2022-02-22T00:00:00 or with milliseconds
-                                LocalDateTime ldt = LocalDateTime.parse(dateStr, DateTimeFormatter.ISO_LOCAL_DATE_TIME);
-                                value = Timestamp.valueOf(ldt);
-                            } else if (value instanceof java.util.Date) {
-                                value = new Timestamp(((java.util.Date) value).getTime());
-                            }
-                        }
-                    } catch (Exception e) {
-                        // If conversion fails, keep original value
-                        System.err.println("Failed to convert field " + fieldName + ": " + e.getMessage());
-                    }
-                }
+    /**
+     * Fill JRXML with rows queried from the database.
+     * Named parameters in the query (:parm_a) are bound from the report parameters.
+     * The result set is forward-only and read in batches of spring.jdbc.template.fetch-size
+     * while the report fills, so rows are never all held in memory.
+     * The caller must close the returned report after exporting it
+     */
+    public FilledReport fillReportFromQuery(ReportData reportData) throws Exception {
+        checkQuerySupported(reportData);
+        CompiledReport compiledReport = compiledReportCache.get(reportData.getJrxmlFileName());
+        JasperReport jasperReport = compiledReport.getJasperReport();
+        String sql = queryRepository.load(reportData.getQueryFile());
+
+        Map<String, Object> reportParams = reportData.getParameters() != null ? reportData.getParameters()
+                : new HashMap<>();
+        // Bound before engine parameters are added to the map
+        MapSqlParameterSource queryParams = new MapSqlParameterSource(new HashMap<>(reportParams));
+        reportParams.put(JRParameter.IS_IGNORE_PAGINATION, false);
 
-                convertedRecord.put(fieldName, value);
-            }
+        // Row count is unknown until the result set has been read
+        JRAbstractLRUVirtualizer virtualizer = reportVirtualizerFactory.create(
+                reportData.getVirtualizer(), jasperReport, ReportVirtualizerFactory.UNKNOWN_ROWS);
+        if (virtualizer != null) {
+            reportParams.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
+        }
 
-            convertedRecords.add(convertedRecord);
+        try {
+            // Query and fill run together on an input thread, so connections in use
+            // never exceed the number of input threads
+            String template = compiledReport.getFileName();
+            JasperPrint jasperPrint = fillReadingInput(template, () -> jdbcTemplate.execute(sql, queryParams,
+                    (PreparedStatementCallback<JasperPrint>) statement -> {
+                        try (ResultSet resultSet = statement.executeQuery()) {
+                            CountingDataSource dataSource = new CountingDataSource(
+                                    new JRResultSetDataSource(resultSet));
+                            JasperPrint filled = JasperFillManager
+                                    .getInstance(DefaultJasperReportsContext.getInstance())
+                                    .fill(jasperReport, reportParams, dataSource);
+                            reportMetrics.recordRows(template, dataSource.getRows());
+                            return filled;
+                        } catch (JRException e) {
+                            throw new JRRuntimeException(e);
+                        }
+                    }));
+            reportMetrics.recordFilled(jasperPrint, template);
+            return new FilledReport(jasperPrint, virtualizer);
+        } catch (InvalidDataAccessApiUsageException e) {
+            // e.g. no value supplied for a named parameter
+            cleanup(virtualizer);
+            throw new IllegalArgumentException(e.getMessage(), e);
+        } catch (JRRuntimeException e) {
+            cleanup(virtualizer);
+            if (e.getCause() instanceof JRException) {
+                throw (JRException) e.getCause();
+            }
+            throw e;
+        } catch (Exception e) {
+            cleanup(virtualizer);
+            throw e;
         }
+    }
 
-        return convertedRecords;
+    /**
+     * Fill JRXML with data streamed from a JSON ReportData request body.
+     * Rows are read and converted one at a time while the report fills, so the
+     * dataset is never materialized. jrxmlFileName and parameters must precede dataRecords.
+     * The caller must close the returned report after exporting it
+     */
+    public FilledReport fillReportFromStream(InputStream requestBody) throws Exception {
+        return fillReportFromStream(requestBody, RecordEncoding.JSON);
     }
 
     /**
-     * Export JRXML to HTML with data
+     * Fill JRXML with data streamed from a ReportData request body in JSON, Smile or CBOR.
+     * Rows are sent as dataRecords objects, or header-once as columns followed by rows arrays.
+     * The caller must close the returned report after exporting it
      */
-    public String exportToHtmlWithData(String jrxmlFileName, Map<String, Object> parameters,
-            List<Map<String, Object>> dataRecords) throws Exception {
-        System.out.println("DEBUG HTML EXPORT STARTED: jrxmlFileName=" + jrxmlFileName);
-        File jrxmlFile = new File(Paths.get(uploadDir, jrxmlFileName).toString());
+    public FilledReport fillReportFromStream(InputStream requestBody, RecordEncoding encoding) throws Exception {
+        try (JsonParser parser = mapperFor(encoding).createParser(requestBody)) {
+            StreamingReportReader.Header header = StreamingReportReader.readHeader(parser);
+            ReportData reportData = header.getReportData();
+            CompiledReport compiledReport = compiledReportFor(reportData);
+
+            // Rows are pulled from the parser while filling
+            ConversionErrors conversionErrors = new ConversionErrors(maxErrorSamples);
+            FieldConverterPlan plan = compiledReport.getConverterPlan();
+            JRDataSource dataSource;
+            if (parser.currentToken() != JsonToken.START_ARRAY) {
+                dataSource = new JREmptyDataSource();
+            } else if (header.hasRows()) {
+                dataSource = new JsonRowDataSource(parser, header.getColumns(), plan, conversionErrors);
+            } else {
+                dataSource = new JsonRecordDataSource(parser, plan, conversionErrors);
+            }
+            return fillStreamed(compiledReport, reportData, dataSource, conversionErrors);
+        }
+    }
+
+    /**
+     * Fill JRXML with CSV rows streamed from a request body; the first line holds the field names.
+     * jrxmlFileName, parameters and virtualizer are given with the request instead of in the body.
+     * The caller must close the returned report after exporting it
+     */
+    public FilledReport fillReportFromCsv(Reader requestBody, ReportData reportData) throws Exception {
+        CompiledReport compiledReport = compiledReportFor(reportData);
+        ConversionErrors conversionErrors = new ConversionErrors(maxErrorSamples);
+        JRDataSource dataSource = new CsvRecordDataSource(requestBody, compiledReport.getConverterPlan(),
+                conversionErrors);
+        return fillStreamed(compiledReport, reportData, dataSource, conversionErrors);
+    }
 
-        if (!jrxmlFile.exists()) {
-            throw new FileNotFoundException("JRXML file not found: " + jrxmlFileName);
+    /**
+     * Parse the parameters of a CSV request, sent as a JSON object
+     */
+    public Map<String, Object> parseParameters(String parametersJson) throws IOException {
+        if (parametersJson == null || parametersJson.isBlank()) {
+            return new HashMap<>();
         }
+        try {
+            return objectMapper.readValue(parametersJson, new TypeReference<Map<String, Object>>() {
+            });
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("parameters must be a JSON object: " + e.getOriginalMessage());
+        }
+    }
 
-        // Compile JRXML to JasperReport
-        JasperReport jasperReport = JasperCompileManager.compileReport(jrxmlFile.getAbsolutePath());
+    /**
+     * Mapper reading a streamed body, sharing the configuration of the JSON mapper
+     */
+    private ObjectMapper mapperFor(RecordEncoding encoding) {
+        switch (encoding) {
+            case SMILE:
+                return smileMapper;
+            case CBOR:
+                return cborMapper;
+            case JSON:
+                return objectMapper;
+            default:
+                throw new IllegalArgumentException("Not a ReportData encoding: " + encoding);
+        }
+    }
 
-        // Debug: Log field information
-        JRField[] fields = jasperReport.getFields();
-        System.out.println("DEBUG HTML EXPORT: Total fields in JRXML: " + (fields != null ? fields.length : 0));
-        if (fields != null && fields.length > 0) {
-            System.out.println("DEBUG HTML EXPORT: First 5 fields: " +
-                    String.join(", ", java.util.Arrays.stream(fields).limit(5).map(f -> f.getName())
-                            .collect(java.util.stream.Collectors.toList())));
+    private CompiledReport compiledReportFor(ReportData reportData) throws IOException, JRException {
+        if (reportData.getJrxmlFileName() == null) {
+            throw new IllegalArgumentException("jrxmlFileName is required");
         }
+        // Get compiled JasperReport (compiled once per JRXML content)
+        return compiledReportCache.get(reportData.getJrxmlFileName());
+    }
 
-        // Prepare parameters with font handling
-        Map<String, Object> reportParams = parameters != null ? parameters : new HashMap<>();
+    /**
+     * Fill from a data source that reads the request body while the report fills
+     */
+    private FilledReport fillStreamed(CompiledReport compiledReport, ReportData reportData, JRDataSource source,
+            ConversionErrors conversionErrors) throws Exception {
+        JasperReport jasperReport = compiledReport.getJasperReport();
+        Map<String, Object> reportParams = reportData.getParameters() != null ? reportData.getParameters()
+                : new HashMap<>();
         reportParams.put(JRParameter.IS_IGNORE_PAGINATION, false);
 
-        // Convert data records to correct types
-        List<Map<String, Object>> convertedRecords = convertDataRecords(dataRecords, jasperReport);
-
-        // Log data source info
-        System.out.println("DEBUG: Original dataRecords size: " + (dataRecords != null ? dataRecords.size() : "null"));
-        System.out.println(
-                "DEBUG: Converted records size: " + (convertedRecords != null ? convertedRecords.size() : "null"));
-        if (convertedRecords != null && !convertedRecords.isEmpty()) {
-            System.out.println("DEBUG: First record keys: " + convertedRecords.get(0).keySet());
-            System.out.println("DEBUG: First record full_name_ln1: " + convertedRecords.get(0).get("full_name_ln1"));
-            System.out
-                    .println("DEBUG: First record closing_balance: " + convertedRecords.get(0).get("closing_balance"));
-        }
-
-        // Create data source from records
-        JRDataSource dataSource;
-        if (convertedRecords != null && !convertedRecords.isEmpty()) {
-            // Debug: Verify all fields exist in data
-            JRField[] jrFields = jasperReport.getFields();
-            Map<String, Object> firstRecord = convertedRecords.get(0);
-            System.out.println("DEBUG HTML EXPORT: Checking field-data mapping for " + jrFields.length + " fields:");
-            for (JRField field : jrFields) {
-                boolean exists = firstRecord.containsKey(field.getName());
-                if (!exists || field.getName().equals("full_name_ln1") || field.getName().equals("closing_balance")
-                        || field.getName().equals("branch_month_id")) {
-                    System.out.println("  - Field '" + field.getName() + "': " + (exists ? "✓" : "✗ MISSING"));
-                }
-            }
-            dataSource = new JRMapArrayDataSource(convertedRecords.toArray(new Map[0]));
-        } else {
-            dataSource = new JREmptyDataSource();
+        // Row count is unknown until the stream has been read
+        JRAbstractLRUVirtualizer virtualizer = reportVirtualizerFactory.create(
+                reportData.getVirtualizer(), jasperReport, ReportVirtualizerFactory.UNKNOWN_ROWS);
+        if (virtualizer != null) {
+            reportParams.put(JRParameter.REPORT_VIRTUALIZER, virtualizer);
         }
 
-        // Fill report with data - catch font errors and retry with fallback
-        JasperPrint jasperPrint;
         try {
-            System.out.println("DEBUG HTML EXPORT: Starting to fill report with "
-                    + (convertedRecords != null ? convertedRecords.size() : 0) + " records");
-            jasperPrint = JasperFillManager.fillReport(
-                    jasperReport,
-                    reportParams,
-                    dataSource);
-            System.out
-                    .println("DEBUG HTML EXPORT: Report filled successfully. Pages: " + jasperPrint.getPages().size());
+            // Rows are read from the request while filling, so this render also waits on the client
+            String template = compiledReport.getFileName();
+            CountingDataSource dataSource = new CountingDataSource(source);
+            JasperPrint jasperPrint = fillReadingInput(template,
+                    () -> JasperFillManager.getInstance(DefaultJasperReportsContext.getInstance())
+                            .fill(jasperReport, reportParams, dataSource));
+            reportMetrics.recordRows(template, dataSource.getRows());
+            reportMetrics.recordFilled(jasperPrint, template);
+            logConversionErrors(template, conversionErrors);
+            return new FilledReport(jasperPrint, virtualizer, conversionErrors);
         } catch (Exception e) {
-            System.err.println("DEBUG HTML EXPORT: Error during fill: " + e.getMessage());
-            e.printStackTrace();
-            if (e.getMessage() != null && e.getMessage().contains("Font")) {
-                // Font error - enable font ignore and retry
-                System.setProperty("net.sf.jasperreports.awt.ignore.missing.font", "true");
-                System.setProperty("java.awt.headless", "true");
-                jasperPrint = JasperFillManager.fillReport(
-                        jasperReport,
-                        reportParams,
-                        dataSource);
-            } else {
-                throw e;
-            }
+            cleanup(virtualizer);
+            throw e;
+        }
+    }
+
+    /**
+     * Run a fill on the render pool, timing the fill itself (not the wait for a render thread)
+     */
+    private <E extends Exception> JasperPrint fill(String template, RenderExecutor.RenderTask<JasperPrint, E> task)
+            throws E {
+        return renderExecutor.execute(timedFill(template, task));
+    }
+
+    /**
+     * Run a fill that reads its rows from the request or database while filling on the input pool
+     */
+    private <E extends Exception> JasperPrint fillReadingInput(String template,
+            RenderExecutor.RenderTask<JasperPrint, E> task) throws E {
+        return renderExecutor.executeReadingInput(timedFill(template, task));
+    }
+
+    private <E extends Exception> RenderExecutor.RenderTask<JasperPrint, E> timedFill(String template,
+            RenderExecutor.RenderTask<JasperPrint, E> task) {
+        return () -> {
+            long start = System.nanoTime();
+            JasperPrint jasperPrint = task.call();
+            reportMetrics.recordPhase(ReportMetrics.FILL, template, ReportMetrics.NO_FORMAT, start);
+            return jasperPrint;
+        };
+    }
+
+    private static void cleanup(JRAbstractLRUVirtualizer virtualizer) {
+        if (virtualizer != null) {
+            virtualizer.cleanup();
+        }
+    }
+
+    /**
+     * Create the data source for converted records.
+     * Large datasets are stored column-wise to keep heap per row small, and their
+     * records are cleared from dataRecords once converted.
+     */
+    private JRDataSource createDataSource(CompiledReport compiledReport, List<Map<String, Object>> dataRecords,
+            ConversionErrors conversionErrors) {
+        if (dataRecords == null || dataRecords.isEmpty()) {
+            return new JREmptyDataSource();
+        }
+
+        FieldConverterPlan plan = compiledReport.getConverterPlan();
+        if (dataRecords.size() >= columnarMinRows) {
+            ColumnarDataSource dataSource = ColumnarDataSource.of(plan, dataRecords, columnarMaxDictionarySize,
+                    conversionErrors);
+            releaseRecords(dataRecords);
+            return dataSource;
         }
+        return new IndexedRecordDataSource(plan, plan.convert(dataRecords, conversionErrors));
+    }
+
+    /**
+     * Clear records that have been converted, so they can be collected while the report fills
+     */
+    private static void releaseRecords(List<Map<String, Object>> dataRecords) {
+        try {
+            dataRecords.clear();
+        } catch (UnsupportedOperationException e) {
+            // Immutable list, it stays with the caller
+        }
+    }
 
-        // Export to HTML using modern API
-        StringWriter htmlWriter = new StringWriter();
+    /**
+     * One line per fill instead of one per failed value
+     */
+    private static void logConversionErrors(String template, ConversionErrors conversionErrors) {
+        if (!conversionErrors.isEmpty() && log.isWarnEnabled()) {
+            log.warn("{}: {} values could not be converted and were filled as sent ({}), e.g. {}", template,
+                    conversionErrors.getTotal(), conversionErrors.fieldCounts(), conversionErrors.getSamples());
+        }
+    }
+
+    /**
+     * Export a filled report to PDF using modern API with Unicode support
+     */
+    public void writePdf(JasperPrint jasperPrint, OutputStream outputStream) throws JRException {
+        exportOnRenderThread(createPdfExporter(new SimpleExporterInput(jasperPrint), outputStream),
+                jasperPrint, "pdf");
+    }
+
+    /**
+     * Create a PDF exporter for one or more filled reports (several reports are merged into one PDF)
+     */
+    JRPdfExporter createPdfExporter(ExporterInput exporterInput, OutputStream outputStream) {
+        JRPdfExporter exporter = new JRPdfExporter();
+        exporter.setExporterInput(exporterInput);
+        exporter.setExporterOutput(new net.sf.jasperreports.export.SimpleOutputStreamExporterOutput(outputStream));
+
+        // Configure PDF export properties for Unicode/Sinhala support
+        net.sf.jasperreports.export.SimplePdfExporterConfiguration exportConfig = new net.sf.jasperreports.export.SimplePdfExporterConfiguration();
+        exportConfig.setMetadataTitle("Report");
+        exportConfig.setMetadataAuthor("Rajida Report Service");
+        exportConfig.setCompressed(true);
+        exporter.setConfiguration(exportConfig);
+        return exporter;
+    }
+
+    /**
+     * Export a filled report to HTML using modern API
+     * Images are stored in the resource store and referenced by URL
+     */
+    public void writeHtml(JasperPrint jasperPrint, Writer writer) throws JRException {
+        HtmlExporter exporter = new HtmlExporter();
+        exporter.setExporterInput(new SimpleExporterInput(jasperPrint));
+        exporter.setExporterOutput(htmlOutput(writer));
+        exporter.setConfiguration(htmlConfiguration());
+        exportOnRenderThread(exporter, jasperPrint, "html");
+    }
+
+    /**
+     * Export a range of pages of a filled report to HTML (0-based page indexes, inclusive).
+     * Only the requested pages are exported.
+     */
+    public void writeHtml(JasperPrint jasperPrint, Writer writer, int startPageIndex, int endPageIndex)
+            throws JRException {
         HtmlExporter exporter = new HtmlExporter();
         exporter.setExporterInput(new SimpleExporterInput(jasperPrint));
-        exporter.setExporterOutput(new SimpleHtmlExporterOutput(htmlWriter));
-        exporter.exportReport();
+        exporter.setExporterOutput(htmlOutput(writer));
+
+        SimpleHtmlReportConfiguration reportConfig = htmlConfiguration();
+        reportConfig.setStartPageIndex(startPageIndex);
+        reportConfig.setEndPageIndex(endPageIndex);
+        exporter.setConfiguration(reportConfig);
 
-        String result = htmlWriter.toString();
-        System.out.println("DEBUG HTML EXPORT: Export complete. HTML size: " + result.length() + " bytes");
-        return result;
+        exportOnRenderThread(exporter, jasperPrint, "html");
+    }
+
+    private SimpleHtmlExporterOutput htmlOutput(Writer writer) {
+        SimpleHtmlExporterOutput output = new SimpleHtmlExporterOutput(writer);
+        if (reportResourceStore.isEnabled()) {
+            output.setImageHandler(reportResourceStore.newImageHandler());
+        }
+        return output;
+    }
+
+    private SimpleHtmlReportConfiguration htmlConfiguration() {
+        SimpleHtmlReportConfiguration reportConfig = new SimpleHtmlReportConfiguration();
+        if (!reportResourceStore.isEnabled()) {
+            // Without the resource store, images are inlined as data URIs rather than dropped
+            reportConfig.setEmbedImage(true);
+        }
+        return reportConfig;
     }
 
     /**
-     * Get list of uploaded JRXML files
+     * Export a filled report to an Excel workbook
      */
-    public String[] getUploadedFiles() throws IOException {
-        Path uploadPath = Paths.get(uploadDir);
-        if (!Files.exists(uploadPath)) {
-            return new String[0];
+    public void writeXlsx(JasperPrint jasperPrint, OutputStream outputStream) throws JRException {
+        JRXlsxExporter exporter = new JRXlsxExporter();
+        exporter.setExporterInput(new SimpleExporterInput(jasperPrint));
+        exporter.setExporterOutput(new SimpleOutputStreamExporterOutput(outputStream));
+
+        SimpleXlsxReportConfiguration reportConfig = new SimpleXlsxReportConfiguration();
+        // Numbers and dates become typed cells instead of text
+        reportConfig.setDetectCellType(true);
+        reportConfig.setRemoveEmptySpaceBetweenRows(true);
+        reportConfig.setWhitePageBackground(false);
+        exporter.setConfiguration(reportConfig);
+
+        exportOnRenderThread(exporter, jasperPrint, "xlsx");
+    }
+
+    /**
+     * Export a filled report to CSV
+     */
+    public void writeCsv(JasperPrint jasperPrint, Writer writer) throws JRException {
+        JRCsvExporter exporter = new JRCsvExporter();
+        exporter.setExporterInput(new SimpleExporterInput(jasperPrint));
+        exporter.setExporterOutput(new SimpleWriterExporterOutput(writer));
+        exportOnRenderThread(exporter, jasperPrint, "csv");
+    }
+
+    /**
+     * Run a configured exporter on the CPU-bound render pool
+     */
+    private void exportOnRenderThread(Exporter<?, ?, ?, ?> exporter, JasperPrint jasperPrint, String format)
+            throws JRException {
+        renderExecutor.execute(() -> {
+            long start = System.nanoTime();
+            exporter.exportReport();
+            reportMetrics.recordPhase(ReportMetrics.EXPORT, ReportMetrics.template(jasperPrint), format, start);
+            return null;
+        });
+    }
+
+    /**
+     * Export JRXML to HTML with data
+     */
+    public String exportToHtmlWithData(String jrxmlFileName, Map<String, Object> parameters,
+            List<Map<String, Object>> dataRecords) throws Exception {
+        try (FilledReport filledReport = fillHtmlReport(jrxmlFileName, parameters, dataRecords, null, null)) {
+            // Export to HTML
+            StringWriter htmlWriter = new StringWriter();
+            writeHtml(filledReport.getJasperPrint(), htmlWriter);
+
+            String result = htmlWriter.toString();
+            log.debug("Exported {} to HTML, {} chars", jrxmlFileName, result.length());
+            return result;
         }
+    }
 
-        return Files.list(uploadPath)
-                .filter(path -> path.toString().endsWith(".jrxml"))
-                .map(path -> path.getFileName().toString())
-                .toArray(String[]::new);
+    /**
+     * Fill JRXML with data, ready to be exported to HTML
+     * The caller must close the returned report after exporting it
+     */
+    public FilledReport fillHtmlReport(String jrxmlFileName, Map<String, Object> parameters,
+            List<Map<String, Object>> dataRecords, String virtualizerMode, String partitionBy) throws Exception {
+        if (log.isDebugEnabled()) {
+            logFieldMapping(jrxmlFileName, dataRecords);
+        }
+
+        // Fill report with data (same conversion and virtualization as PDF)
+        int rowCount = dataRecords != null ? dataRecords.size() : 0;
+        FilledReport filledReport = fillReport(compiledReportCache.get(jrxmlFileName), parameters, dataRecords,
+                virtualizerMode, partitionBy);
+        log.debug("Filled {} with {} records, {} pages", jrxmlFileName, rowCount,
+                filledReport.getJasperPrint().getPages().size());
+        return filledReport;
+    }
+
+    /**
+     * Debug aid: report fields that are missing from the first data record
+     */
+    private void logFieldMapping(String jrxmlFileName, List<Map<String, Object>> dataRecords)
+            throws IOException, JRException {
+        JRField[] fields = compiledReportCache.get(jrxmlFileName).getJasperReport().getFields();
+        if (fields == null || dataRecords == null || dataRecords.isEmpty()) {
+            return;
+        }
+        Map<String, Object> firstRecord = dataRecords.get(0);
+        String missing = java.util.Arrays.stream(fields)
+                .map(JRField::getName)
+                .filter(name -> !firstRecord.containsKey(name))
+                .collect(Collectors.joining(", "));
+        log.debug("{}: {} fields, {} records, fields missing from the first record: [{}]", jrxmlFileName,
+                fields.length, dataRecords.size(), missing);
+    }
+
+    /**
+     * Get list of uploaded JRXML files
+     */
+    public String[] getUploadedFiles() {
+        return templateIndex.getFileNames().toArray(String[]::new);
+    }
+
+    /**
+     * Get uploaded JRXML files with their size, content hash and compile state
+     */
+    public List<TemplateInfo> getTemplates() throws FileNotFoundException {
+        List<TemplateInfo> templates = new ArrayList<>();
+        for (TemplateIndex.Entry entry : templateIndex.getEntries()) {
+            TemplateInfo template = new TemplateInfo(entry.getFileName(), entry.getSize(),
+                    entry.getLastModified(), entry.getContentHash());
+            template.setState(reportCompilationService.getStatus(entry.getFileName()).getState());
+            templates.add(template);
+        }
+        return templates;
     }
 
     /**
@@ -340,6 +771,16 @@ public class ReportService {
      */
     public boolean deleteJrxmlFile(String fileName) throws IOException {
         Path filePath = Paths.get(uploadDir, fileName);
-        return Files.deleteIfExists(filePath);
+        compiledReportCache.invalidate(fileName);
+        boolean deleted = Files.deleteIfExists(filePath);
+        templateIndex.refresh(fileName);
+        return deleted;
+    }
+
+    /**
+     * Get compile status of an uploaded JRXML file
+     */
+    public CompileStatus getCompileStatus(String fileName) throws FileNotFoundException {
+        return reportCompilationService.getStatus(fileName);
     }
 }
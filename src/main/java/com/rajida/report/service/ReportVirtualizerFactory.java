@@ -0,0 +1,152 @@
+package com.rajida.report.service;
+
+import net.sf.jasperreports.engine.JRBand;
+import net.sf.jasperreports.engine.JRSection;
+import net.sf.jasperreports.engine.JasperReport;
+import net.sf.jasperreports.engine.fill.JRAbstractLRUVirtualizer;
+import net.sf.jasperreports.engine.fill.JRGzipVirtualizer;
+import net.sf.jasperreports.engine.fill.JRSwapFileVirtualizer;
+import net.sf.jasperreports.engine.util.JRSwapFile;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.util.Locale;
+
+/**
+ * Chooses and creates the page virtualizer for a fill.
+ * Modes: "none", "file" (swap pages to disk), "gzip" (keep pages compressed in memory)
+ * or "auto" (the configured auto type once the row count or estimated page count
+ * crosses its threshold, and the unknown-rows type for streamed data).
+ */
+@Component
+public class ReportVirtualizerFactory {
+
+    public static final String NONE = "none";
+    public static final String FILE = "file";
+    public static final String GZIP = "gzip";
+    public static final String AUTO = "auto";
+
+    /**
+     * Row count to pass when the number of rows is not known up front
+     */
+    public static final int UNKNOWN_ROWS = -1;
+
+    @Value("${report.virtualizer.mode:auto}")
+    private String defaultMode;
+
+    @Value("${report.virtualizer.auto-type:file}")
+    private String autoType;
+
+    @Value("${report.virtualizer.unknown-rows-type:gzip}")
+    private String unknownRowsType;
+
+    @Value("${report.virtualizer.row-threshold:20000}")
+    private int rowThreshold;
+
+    @Value("${report.virtualizer.page-threshold:200}")
+    private int pageThreshold;
+
+    @Value("${report.virtualizer.max-pages-in-memory:50}")
+    private int maxPagesInMemory;
+
+    @Value("${report.virtualizer.swap-dir:${java.io.tmpdir}/rajida-report-swap}")
+    private String swapDir;
+
+    @Value("${report.virtualizer.swap-block-size:4096}")
+    private int swapBlockSize;
+
+    @Value("${report.virtualizer.swap-min-grow:100}")
+    private int swapMinGrow;
+
+    /**
+     * Create the virtualizer for a fill, or null if the report should be filled in memory
+     *
+     * @param requestedMode mode from the request, null for the configured default
+     * @param rowCount      rows to fill, or UNKNOWN_ROWS for streamed data
+     */
+    public JRAbstractLRUVirtualizer create(String requestedMode, JasperReport jasperReport, int rowCount) {
+        String mode = resolveMode(requestedMode, jasperReport, rowCount);
+        switch (mode) {
+            case NONE:
+                return null;
+            case FILE:
+                try {
+                    Files.createDirectories(Paths.get(swapDir));
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Cannot create virtualizer swap directory " + swapDir, e);
+                }
+                // The virtualizer owns the swap file and deletes it on cleanup
+                return new JRSwapFileVirtualizer(maxPagesInMemory,
+                        new JRSwapFile(swapDir, swapBlockSize, swapMinGrow), true);
+            case GZIP:
+                return new JRGzipVirtualizer(maxPagesInMemory);
+            default:
+                throw new IllegalArgumentException("Unknown virtualizer mode: " + mode);
+        }
+    }
+
+    /**
+     * True if create would return a virtualizer for this fill
+     */
+    public boolean willVirtualize(String requestedMode, JasperReport jasperReport, int rowCount) {
+        return !NONE.equals(resolveMode(requestedMode, jasperReport, rowCount));
+    }
+
+    private String resolveMode(String requestedMode, JasperReport jasperReport, int rowCount) {
+        String mode = requestedMode != null ? requestedMode.toLowerCase(Locale.ROOT) : defaultMode;
+        if (AUTO.equals(mode)) {
+            if (rowCount == UNKNOWN_ROWS) {
+                // Streamed data can be of any size, but most streams are small: no swap file per fill
+                return unknownRowsType;
+            }
+            mode = needsVirtualization(jasperReport, rowCount) ? autoType : NONE;
+        }
+        return mode;
+    }
+
+    /**
+     * Reject unknown modes before any report is filled
+     */
+    public static void checkMode(String requestedMode) {
+        if (requestedMode == null) {
+            return;
+        }
+        switch (requestedMode.toLowerCase(Locale.ROOT)) {
+            case AUTO:
+            case NONE:
+            case FILE:
+            case GZIP:
+                return;
+            default:
+                throw new IllegalArgumentException("Unknown virtualizer mode: " + requestedMode);
+        }
+    }
+
+    private boolean needsVirtualization(JasperReport jasperReport, int rowCount) {
+        return rowCount >= rowThreshold || estimatePages(jasperReport, rowCount) >= pageThreshold;
+    }
+
+    /**
+     * Rough page estimate from the detail band height and the printable page height
+     */
+    static int estimatePages(JasperReport jasperReport, int rowCount) {
+        int detailHeight = 0;
+        JRSection detailSection = jasperReport.getDetailSection();
+        if (detailSection != null && detailSection.getBands() != null) {
+            for (JRBand band : detailSection.getBands()) {
+                detailHeight += band.getHeight();
+            }
+        }
+        int printableHeight = jasperReport.getPageHeight() - jasperReport.getTopMargin()
+                - jasperReport.getBottomMargin();
+        if (detailHeight <= 0 || printableHeight <= 0) {
+            return 1;
+        }
+        int rowsPerPage = Math.max(1, printableHeight / detailHeight);
+        return (rowCount + rowsPerPage - 1) / rowsPerPage;
+    }
+}
@@ -0,0 +1,124 @@
+package com.rajida.report.service;
+
+import com.rajida.report.model.CompileStatus;
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JREmptyDataSource;
+import net.sf.jasperreports.engine.JRParameter;
+import net.sf.jasperreports.engine.JasperFillManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.fonts.FontUtil;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.awt.GraphicsEnvironment;
+import java.io.OutputStream;
+import java.io.Writer;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Optional startup warm-up: compiles every uploaded template and runs one
+ * synthetic fill/export per format so fonts, Jasper extensions and the JIT
+ * are initialized before the service reports itself ready.
+ */
+@Service
+public class ReportWarmupService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportWarmupService.class);
+
+    @Value("${report.warmup.enabled:false}")
+    private boolean enabled;
+
+    @Autowired
+    private ReportCompilationService reportCompilationService;
+
+    @Autowired
+    private CompiledReportCache compiledReportCache;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private TemplateIndex templateIndex;
+
+    private volatile boolean completed;
+    private final Map<String, Long> templateTimings = new LinkedHashMap<>();
+
+    /**
+     * True when warm-up is disabled or has finished
+     */
+    public boolean isReady() {
+        return !enabled || completed;
+    }
+
+    /**
+     * Warm-up time in milliseconds per template, in the order they were processed
+     */
+    public synchronized Map<String, Long> getTemplateTimings() {
+        return new LinkedHashMap<>(templateTimings);
+    }
+
+    /**
+     * Run the warm-up. Failures are logged and never prevent startup.
+     */
+    public void warmUp() {
+        long start = System.nanoTime();
+        try {
+            primeFonts();
+            for (String fileName : templateIndex.getFileNames()) {
+                warmUpTemplate(fileName);
+            }
+        } catch (Exception e) {
+            log.warn("Warm-up aborted: {}", e.getMessage());
+        } finally {
+            completed = true;
+            log.info("Warm-up finished in {} ms", (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    private void primeFonts() {
+        long start = System.nanoTime();
+        // Loads the AWT font registry (system fallback fonts)
+        int systemFamilies = GraphicsEnvironment.getLocalGraphicsEnvironment().getAvailableFontFamilyNames().length;
+        // Loads the Jasper font extensions
+        int extensionFamilies = FontUtil.getInstance(DefaultJasperReportsContext.getInstance())
+                .getFontFamilyNames().size();
+        log.info("Warm-up: loaded {} system and {} extension font families in {} ms",
+                systemFamilies, extensionFamilies, (System.nanoTime() - start) / 1_000_000);
+    }
+
+    private void warmUpTemplate(String fileName) {
+        long start = System.nanoTime();
+        CompileStatus status = reportCompilationService.compile(fileName);
+        if (status.getState() != CompileStatus.State.COMPILED) {
+            log.warn("Warm-up: {} did not compile: {}", fileName, status.getError());
+            return;
+        }
+
+        try {
+            // One empty record so detail bands and their fonts are exercised too
+            Map<String, Object> parameters = new HashMap<>();
+            parameters.put(JRParameter.IS_IGNORE_PAGINATION, false);
+            CompiledReport compiledReport = compiledReportCache.get(fileName);
+            JasperPrint jasperPrint = JasperFillManager.getInstance(DefaultJasperReportsContext.getInstance())
+                    .fill(compiledReport.getJasperReport(), parameters, new JREmptyDataSource(1));
+            reportService.writePdf(jasperPrint, OutputStream.nullOutputStream());
+            reportService.writeHtml(jasperPrint, Writer.nullWriter());
+        } catch (Exception e) {
+            // Templates that cannot render without real data are still compiled
+            log.debug("Warm-up: synthetic export of {} failed: {}", fileName, e.getMessage());
+        }
+
+        long elapsedMillis = (System.nanoTime() - start) / 1_000_000;
+        synchronized (this) {
+            templateTimings.put(fileName, elapsedMillis);
+        }
+        log.info("Warm-up: {} compiled in {} ms, ready in {} ms",
+                fileName, status.getCompileTimeMillis(), elapsedMillis);
+    }
+}
@@ -0,0 +1,132 @@
+package com.rajida.report.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.rajida.report.model.ReportData;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads the leading part of a streamed ReportData request body (JSON, Smile or CBOR).
+ * jrxmlFileName and parameters must come before dataRecords so rows can be
+ * consumed one at a time while the report fills. Instead of dataRecords objects
+ * the body may send the column names once in columns, followed by rows as arrays.
+ */
+final class StreamingReportReader {
+
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<>() {
+    };
+
+    private StreamingReportReader() {
+    }
+
+    /**
+     * Leading fields of a streamed body
+     */
+    static final class Header {
+        private final ReportData reportData = new ReportData();
+        private List<String> columns;
+        private boolean rows;
+
+        /**
+         * jrxmlFileName, parameters, exportFormat and virtualizer of the request
+         */
+        ReportData getReportData() {
+            return reportData;
+        }
+
+        /**
+         * Column names of the rows, null if rows are sent as dataRecords objects
+         */
+        List<String> getColumns() {
+            return columns;
+        }
+
+        /**
+         * True if the parser is on the rows array, false if on dataRecords (or past the end)
+         */
+        boolean hasRows() {
+            return rows;
+        }
+    }
+
+    /**
+     * Read fields up to dataRecords or rows. On return the parser is positioned on the
+     * START_ARRAY of dataRecords or rows, or past the end of the object if there are no records.
+     */
+    static Header readHeader(JsonParser parser) throws IOException {
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            throw new IllegalArgumentException("Request body must be an object");
+        }
+
+        Header header = new Header();
+        ReportData reportData = header.reportData;
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String name = parser.getCurrentName();
+            JsonToken token = parser.nextToken();
+
+            if ("jrxmlFileName".equals(name)) {
+                reportData.setJrxmlFileName(token == JsonToken.VALUE_NULL ? null : parser.getValueAsString());
+            } else if ("parameters".equals(name)) {
+                reportData.setParameters(token == JsonToken.VALUE_NULL ? null : parser.readValueAs(MAP_TYPE));
+            } else if ("exportFormat".equals(name)) {
+                reportData.setExportFormat(token == JsonToken.VALUE_NULL ? null : parser.getValueAsString());
+            } else if ("virtualizer".equals(name)) {
+                reportData.setVirtualizer(token == JsonToken.VALUE_NULL ? null : parser.getValueAsString());
+            } else if ("columns".equals(name) && token == JsonToken.START_ARRAY) {
+                header.columns = readColumns(parser);
+            } else if (("dataRecords".equals(name) || "rows".equals(name)) && token == JsonToken.START_ARRAY) {
+                if (reportData.getJrxmlFileName() == null) {
+                    throw new IllegalArgumentException("jrxmlFileName must be sent before " + name);
+                }
+                header.rows = "rows".equals(name);
+                if (header.rows && header.columns == null) {
+                    throw new IllegalArgumentException("columns must be sent before rows");
+                }
+                return header;
+            } else {
+                parser.skipChildren();
+            }
+        }
+        return header;
+    }
+
+    private static List<String> readColumns(JsonParser parser) throws IOException {
+        List<String> columns = new ArrayList<>();
+        while (parser.nextToken() != JsonToken.END_ARRAY) {
+            if (!parser.currentToken().isScalarValue()) {
+                throw new IllegalArgumentException("columns must be an array of field names");
+            }
+            columns.add(parser.getValueAsString());
+        }
+        return columns;
+    }
+
+    /**
+     * Read the current value token as a plain Java value
+     */
+    static Object readValue(JsonParser parser, JsonToken token) throws IOException {
+        switch (token) {
+            case VALUE_STRING:
+                return parser.getText();
+            case VALUE_NUMBER_INT:
+            case VALUE_NUMBER_FLOAT:
+                return parser.getNumberValue();
+            case VALUE_TRUE:
+                return Boolean.TRUE;
+            case VALUE_FALSE:
+                return Boolean.FALSE;
+            case VALUE_EMBEDDED_OBJECT:
+                return parser.getEmbeddedObject();
+            case START_OBJECT:
+            case START_ARRAY:
+                return parser.readValueAs(Object.class);
+            default:
+                return null;
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package com.rajida.report.service;
+
+/**
+ * Published by the TemplateIndex when an uploaded JRXML file was added, changed
+ * or deleted, whether through this instance or by another node on a shared volume
+ */
+public class TemplateChangedEvent {
+    private final String fileName;
+    private final String contentHash;
+
+    public TemplateChangedEvent(String fileName, String contentHash) {
+        this.fileName = fileName;
+        this.contentHash = contentHash;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    /**
+     * SHA-256 of the new content, null when the file was deleted
+     */
+    public String getContentHash() {
+        return contentHash;
+    }
+
+    public boolean isDeleted() {
+        return contentHash == null;
+    }
+}
@@ -0,0 +1,121 @@
+package com.rajida.report.service;
+
+import net.sf.jasperreports.engine.DefaultJasperReportsContext;
+import net.sf.jasperreports.engine.JRConditionalStyle;
+import net.sf.jasperreports.engine.JRFont;
+import net.sf.jasperreports.engine.JRReport;
+import net.sf.jasperreports.engine.JRStaticText;
+import net.sf.jasperreports.engine.JRStyle;
+import net.sf.jasperreports.engine.JRTextField;
+import net.sf.jasperreports.engine.JasperReportsContext;
+import net.sf.jasperreports.engine.fonts.FontUtil;
+import net.sf.jasperreports.engine.util.JRElementsVisitor;
+import net.sf.jasperreports.engine.util.JRGraphEnvInitializer;
+import net.sf.jasperreports.engine.util.JRVisitorSupport;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * Fonts used by a template, resolved once when it is compiled against the default
+ * JasperReportsContext that all fills run with. Fonts that are neither in a font
+ * extension nor installed on the host are reported as missing. The list covers
+ * the template's own styles and text elements only (not subreports or styled-text
+ * markup), so missing fonts are ignored for every report (rendered with the AWT
+ * fallback font, see jasperreports.properties) rather than failing a fill.
+ */
+public class TemplateFonts {
+
+    public enum Source {
+        EXTENSION, SYSTEM, MISSING
+    }
+
+    static final String DEFAULT_FONT_NAME = "net.sf.jasperreports.default.font.name";
+
+    private final Map<String, Source> fonts;
+    private final List<String> missing;
+
+    private TemplateFonts(Map<String, Source> fonts) {
+        this.fonts = Collections.unmodifiableMap(fonts);
+        this.missing = fonts.entrySet().stream()
+                .filter(entry -> entry.getValue() == Source.MISSING)
+                .map(Map.Entry::getKey)
+                .toList();
+    }
+
+    /**
+     * Resolve the fonts of a report: its styles and their conditional styles, text elements
+     * and the default font
+     */
+    public static TemplateFonts of(JRReport report) {
+        JasperReportsContext context = DefaultJasperReportsContext.getInstance();
+        Set<String> names = new TreeSet<>();
+        String defaultFont = context.getProperty(DEFAULT_FONT_NAME);
+        if (defaultFont != null) {
+            names.add(defaultFont);
+        }
+        if (report.getStyles() != null) {
+            for (JRStyle style : report.getStyles()) {
+                addFont(names, style.getOwnFontName());
+                if (style.getConditionalStyles() != null) {
+                    for (JRConditionalStyle conditionalStyle : style.getConditionalStyles()) {
+                        addFont(names, conditionalStyle.getOwnFontName());
+                    }
+                }
+            }
+        }
+        JRElementsVisitor.visitReport(report, new JRVisitorSupport() {
+            @Override
+            public void visitStaticText(JRStaticText staticText) {
+                addFont(names, staticText);
+            }
+
+            @Override
+            public void visitTextField(JRTextField textField) {
+                addFont(names, textField);
+            }
+        });
+
+        FontUtil fontUtil = FontUtil.getInstance(context);
+        Map<String, Source> fonts = new TreeMap<>();
+        for (String name : names) {
+            if (fontUtil.getFontInfo(name, null) != null) {
+                fonts.put(name, Source.EXTENSION);
+            } else if (JRGraphEnvInitializer.isAwtFontAvailable(name)) {
+                fonts.put(name, Source.SYSTEM);
+            } else {
+                fonts.put(name, Source.MISSING);
+            }
+        }
+        return new TemplateFonts(fonts);
+    }
+
+    private static void addFont(Set<String> names, JRFont font) {
+        addFont(names, font.getOwnFontName());
+    }
+
+    private static void addFont(Set<String> names, String name) {
+        if (name != null && !name.isBlank()) {
+            names.add(name);
+        }
+    }
+
+    /**
+     * Font names used by the template and where each resolves from
+     */
+    public Map<String, Source> getFonts() {
+        return fonts;
+    }
+
+    /**
+     * Font names that resolve nowhere and fall back to the AWT default font.
+     * Fonts of subreports and styled-text markup are not included.
+     */
+    public List<String> getMissing() {
+        return missing;
+    }
+}
@@ -0,0 +1,281 @@
+package com.rajida.report.service;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+/**
+ * In-memory index of the uploaded JRXML files (name, size, modification time and
+ * content hash). It is kept current by a filesystem watcher over the upload directory
+ * and by a periodic rescan, which also catches changes the watcher does not see, e.g.
+ * files written by another node on a shared (NFS/SMB) volume. Every added, changed or
+ * deleted template is published as a TemplateChangedEvent.
+ */
+@Component
+public class TemplateIndex {
+
+    private static final Logger log = LoggerFactory.getLogger(TemplateIndex.class);
+
+    private static final String JRXML_SUFFIX = ".jrxml";
+
+    @Value("${upload.dir:uploads}")
+    private String uploadDir;
+
+    @Value("${report.templates.watch:true}")
+    private boolean watch;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+    private volatile WatchService watchService;
+
+    @PostConstruct
+    void start() throws IOException {
+        Path uploadPath = Paths.get(uploadDir);
+        Files.createDirectories(uploadPath);
+        for (String fileName : scan()) {
+            update(fileName);
+        }
+        log.info("Indexed {} templates in {}", entries.size(), uploadPath.toAbsolutePath());
+
+        if (watch) {
+            try {
+                watchService = uploadPath.getFileSystem().newWatchService();
+                uploadPath.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_MODIFY, StandardWatchEventKinds.ENTRY_DELETE);
+                Thread thread = new Thread(this::watchLoop, "template-watcher");
+                thread.setDaemon(true);
+                thread.start();
+            } catch (IOException | UnsupportedOperationException e) {
+                log.warn("Cannot watch {}, relying on periodic rescans: {}", uploadPath, e.getMessage());
+            }
+        }
+    }
+
+    @PreDestroy
+    void stop() throws IOException {
+        if (watchService != null) {
+            watchService.close();
+        }
+    }
+
+    /**
+     * Indexed entry of a JRXML file, null if there is no such file.
+     * A name not in the index is looked up on disk once, in case the watcher has not caught up yet.
+     */
+    public Entry get(String fileName) {
+        Entry entry = entries.get(fileName);
+        return entry != null ? entry : refresh(fileName);
+    }
+
+    /**
+     * True if the JRXML file exists
+     */
+    public boolean contains(String fileName) {
+        return get(fileName) != null;
+    }
+
+    /**
+     * Names of all indexed JRXML files, sorted
+     */
+    public List<String> getFileNames() {
+        return entries.keySet().stream().sorted().toList();
+    }
+
+    /**
+     * All indexed entries, sorted by file name
+     */
+    public List<Entry> getEntries() {
+        return entries.values().stream()
+                .sorted((a, b) -> a.getFileName().compareTo(b.getFileName()))
+                .toList();
+    }
+
+    /**
+     * Re-read one file after it was written or deleted, publishing a change.
+     * Returns the new entry, null if the file does not exist.
+     */
+    public Entry refresh(String fileName) {
+        if (!fileName.endsWith(JRXML_SUFFIX) || !isPlainName(fileName)) {
+            return null;
+        }
+        TemplateChangedEvent event;
+        Entry entry;
+        synchronized (this) {
+            Entry previous = entries.get(fileName);
+            entry = update(fileName);
+            event = changeOf(fileName, previous, entry);
+        }
+        if (event != null) {
+            log.debug("Template {} {}", fileName, event.isDeleted() ? "deleted" : "changed");
+            eventPublisher.publishEvent(event);
+        }
+        return entry;
+    }
+
+    /**
+     * Rescan the upload directory: picks up files the watcher missed and drops deleted ones
+     */
+    @Scheduled(fixedDelayString = "${report.templates.reconcile-interval-ms:30000}")
+    public void reconcile() {
+        Set<String> fileNames;
+        try {
+            fileNames = new HashSet<>(scan());
+        } catch (IOException e) {
+            log.warn("Could not rescan {}: {}", uploadDir, e.getMessage());
+            return;
+        }
+        fileNames.addAll(entries.keySet());
+        for (String fileName : fileNames) {
+            refresh(fileName);
+        }
+    }
+
+    private void watchLoop() {
+        try {
+            while (true) {
+                WatchKey key = watchService.take();
+                boolean overflow = false;
+                for (WatchEvent<?> event : key.pollEvents()) {
+                    if (event.kind() == StandardWatchEventKinds.OVERFLOW) {
+                        overflow = true;
+                    } else {
+                        refresh(((Path) event.context()).getFileName().toString());
+                    }
+                }
+                if (overflow) {
+                    reconcile();
+                }
+                if (!key.reset()) {
+                    log.warn("Stopped watching {}, relying on periodic rescans", uploadDir);
+                    return;
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ClosedWatchServiceException e) {
+            // Shutting down
+        } catch (RuntimeException e) {
+            log.error("Template watcher failed, relying on periodic rescans: {}", e.getMessage(), e);
+        }
+    }
+
+    private List<String> scan() throws IOException {
+        Path uploadPath = Paths.get(uploadDir);
+        if (!Files.isDirectory(uploadPath)) {
+            return new ArrayList<>();
+        }
+        try (Stream<Path> paths = Files.list(uploadPath)) {
+            return paths.map(path -> path.getFileName().toString())
+                    .filter(name -> name.endsWith(JRXML_SUFFIX))
+                    .toList();
+        }
+    }
+
+    /**
+     * Bring the entry of one file in line with the disk, hashing only when size or mtime changed
+     */
+    private Entry update(String fileName) {
+        Path path = Paths.get(uploadDir, fileName);
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            if (!attributes.isRegularFile()) {
+                entries.remove(fileName);
+                return null;
+            }
+            long size = attributes.size();
+            long lastModified = attributes.lastModifiedTime().toMillis();
+            Entry previous = entries.get(fileName);
+            if (previous != null && previous.getSize() == size && previous.getLastModified() == lastModified) {
+                return previous;
+            }
+            Entry entry = new Entry(fileName, size, lastModified,
+                    CompiledReportCache.sha256(Files.readAllBytes(path)));
+            entries.put(fileName, entry);
+            return entry;
+        } catch (NoSuchFileException e) {
+            entries.remove(fileName);
+            return null;
+        } catch (IOException e) {
+            // Keep what we knew, the next event or rescan tries again
+            log.warn("Could not index {}: {}", fileName, e.getMessage());
+            return entries.get(fileName);
+        }
+    }
+
+    private static TemplateChangedEvent changeOf(String fileName, Entry previous, Entry current) {
+        if (current == null) {
+            return previous != null ? new TemplateChangedEvent(fileName, null) : null;
+        }
+        if (previous == null || !previous.getContentHash().equals(current.getContentHash())) {
+            return new TemplateChangedEvent(fileName, current.getContentHash());
+        }
+        return null;
+    }
+
+    private static boolean isPlainName(String fileName) {
+        return !fileName.contains("/") && !fileName.contains("\\") && !fileName.equals("..");
+    }
+
+    /**
+     * State of one JRXML file as last seen on disk
+     */
+    public static final class Entry {
+        private final String fileName;
+        private final long size;
+        private final long lastModified;
+        private final String contentHash;
+
+        Entry(String fileName, long size, long lastModified, String contentHash) {
+            this.fileName = fileName;
+            this.size = size;
+            this.lastModified = lastModified;
+            this.contentHash = contentHash;
+        }
+
+        public String getFileName() {
+            return fileName;
+        }
+
+        public long getSize() {
+            return size;
+        }
+
+        public long getLastModified() {
+            return lastModified;
+        }
+
+        /**
+         * SHA-256 of the file content
+         */
+        public String getContentHash() {
+            return contentHash;
+        }
+    }
+}
@@ -0,0 +1,34 @@
+-- Sample data for queries/Savings_Product_Sum_S.sql, use parm_a = 1 (h2 profile only)
+
+INSERT INTO it_institute VALUES (1, 'රජිද සමුපකාර සමිතිය', 'Rajida Co-operative Society', 'ரஜிதா கூட்டுறவு சங்கம்',
+    'ප්‍රධාන වීදිය', 'කොළඹ', 'ශ්‍රී ලංකාව');
+
+INSERT INTO gl_branch VALUES (1, 1, 'කොළඹ ශාඛාව', 'Colombo Branch', 'கொழும்பு கிளை', '0112345678', 1);
+
+INSERT INTO it_user_master VALUES (1, 'admin');
+
+INSERT INTO it_generated_reports VALUES (1, 1, 1, 1, 'Branch', 'Month', 'Colombo Branch', '2024-03');
+
+INSERT INTO it_branch_month VALUES (1, 1);
+
+INSERT INTO ci_customer VALUES
+    (1, 'C0001', 'ඒ. බී. පෙරේරා', 'A. B. Perera', 'ஏ. பி. பெரேரா'),
+    (2, 'C0002', 'කේ. සිල්වා', 'K. Silva', 'கே. சில்வா'),
+    (3, 'C0003', 'එම්. ප්‍රනාන්දු', 'M. Fernando', 'எம். பெர்னாண்டோ'),
+    (4, 'C0004', 'එස්. ජයසූරිය', 'S. Jayasuriya', 'எஸ். ஜயசூரிய');
+
+INSERT INTO pl_account_type VALUES
+    (1, 1, 1, 'සාමාන්‍ය ඉතිරිකිරීම්', 'Normal Savings', 'சாதாரண சேமிப்பு'),
+    (2, 1, 1, 'ළමා ඉතිරිකිරීම්', 'Children''s Savings', 'சிறுவர் சேமிப்பு');
+
+INSERT INTO pl_account VALUES
+    (1, 1, 1, 1, 'SA-0001', 1),
+    (2, 2, 1, 1, 'SA-0002', 1),
+    (3, 3, 2, 1, 'CS-0001', 1),
+    (4, 4, 2, 1, 'CS-0002', 1);
+
+INSERT INTO pl_month_tb VALUES
+    (1, 1, 1, 15250.75, 1),
+    (2, 2, 1, 4200.00, 1),
+    (3, 3, 1, 980.50, 1),
+    (4, 4, 1, 12000.00, 1);
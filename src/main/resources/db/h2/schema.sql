@@ -0,0 +1,76 @@
+-- Tables used by queries/Savings_Product_Sum_S.sql (h2 profile only)
+
+CREATE TABLE it_institute (
+    id INT PRIMARY KEY,
+    name_ln1 VARCHAR(200),
+    name_ln2 VARCHAR(200),
+    name_ln3 VARCHAR(200),
+    address_ln1 VARCHAR(200),
+    address_ln2 VARCHAR(200),
+    address_ln3 VARCHAR(200)
+);
+
+CREATE TABLE gl_branch (
+    id INT PRIMARY KEY,
+    it_institute_id INT NOT NULL,
+    name_ln1 VARCHAR(200),
+    name_ln2 VARCHAR(200),
+    name_ln3 VARCHAR(200),
+    telephone VARCHAR(30),
+    status INT
+);
+
+CREATE TABLE it_user_master (
+    id INT PRIMARY KEY,
+    name VARCHAR(200)
+);
+
+CREATE TABLE it_generated_reports (
+    id INT PRIMARY KEY,
+    user_id INT NOT NULL,
+    it_institute_id INT NOT NULL,
+    branch_id INT NOT NULL,
+    filter_1_text VARCHAR(200),
+    filter_2_text VARCHAR(200),
+    filter_1_value VARCHAR(200),
+    filter_2_value VARCHAR(200)
+);
+
+CREATE TABLE it_branch_month (
+    id INT PRIMARY KEY,
+    status INT
+);
+
+CREATE TABLE ci_customer (
+    id INT PRIMARY KEY,
+    customer_number VARCHAR(30),
+    full_name_ln1 VARCHAR(300),
+    full_name_ln2 VARCHAR(300),
+    full_name_ln3 VARCHAR(300)
+);
+
+CREATE TABLE pl_account_type (
+    id INT PRIMARY KEY,
+    it_institute_id INT NOT NULL,
+    pl_account_category_id INT,
+    name_ln1 VARCHAR(200),
+    name_ln2 VARCHAR(200),
+    name_ln3 VARCHAR(200)
+);
+
+CREATE TABLE pl_account (
+    id INT PRIMARY KEY,
+    ci_customer_id INT NOT NULL,
+    pl_account_type_id INT NOT NULL,
+    branch_id INT NOT NULL,
+    ref_account_number VARCHAR(30),
+    status INT
+);
+
+CREATE TABLE pl_month_tb (
+    id INT PRIMARY KEY,
+    pl_account_id INT NOT NULL,
+    branch_month_id INT NOT NULL,
+    closing_balance DOUBLE,
+    status INT
+);
@@ -0,0 +1,201 @@
+package com.rajida.report.service;
+
+import net.sf.jasperreports.engine.JRDataSource;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.design.JRDesignField;
+import net.sf.jasperreports.engine.design.JasperDesign;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Column-wise storage reads back exactly what row-wise storage of the same records does:
+ * values, nulls, types and decimal scales, also after a column falls back to objects
+ */
+class ColumnarDataSourceTest {
+
+    private static final String[] FIELDS = {"int", "long", "short", "double", "float", "decimal", "string", "flag",
+            "date"};
+
+    private static FieldConverterPlan plan;
+
+    @BeforeAll
+    static void compilePlan() throws JRException {
+        plan = FieldConverterPlan.of(JasperCompileManager.compileReport(design(
+                "int", Integer.class, "long", Long.class, "short", Short.class, "double", Double.class,
+                "float", Float.class, "decimal", BigDecimal.class, "string", String.class,
+                "flag", Boolean.class, "date", LocalDate.class)));
+    }
+
+    @Test
+    void everyColumnTypeRoundTripsWithNulls() throws JRException {
+        List<Map<String, Object>> records = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            Map<String, Object> record = new HashMap<>();
+            // Every third row leaves all fields out, so each column holds nulls between values
+            if (i % 3 != 0) {
+                record.put("int", i % 2 == 0 ? -i : Integer.MAX_VALUE - i);
+                record.put("long", Long.MIN_VALUE + i);
+                record.put("short", (short) (Short.MIN_VALUE + i));
+                record.put("double", i / 7.0);
+                record.put("float", (float) i / 3);
+                record.put("decimal", new BigDecimal(i + ".0" + i));
+                record.put("string", "branch " + i % 4);
+                record.put("flag", i % 2 == 0);
+                record.put("date", LocalDate.of(2024, 1, 1).plusDays(i));
+            }
+            records.add(record);
+        }
+        assertSameRows(records, 4096);
+    }
+
+    @Test
+    void decimalsKeepScaleAndLargeOnesFallBackToObjects() throws JRException {
+        List<Map<String, Object>> records = new ArrayList<>();
+        for (String decimal : new String[]{"12.50", "1234567890123456789", "-9223372036854775808", "1E+3",
+                "0.000", null, "-0.5", "9999999999999999999", "3.14", "1E-200"}) {
+            records.add(record("decimal", decimal != null ? new BigDecimal(decimal) : null));
+        }
+        assertSameRows(records, 4096);
+        // Scale -3 is kept, not normalised to 1000
+        assertEquals(new BigDecimal("1E+3"), valuesOf(ColumnarDataSource.of(plan, records, 4096, null), "decimal")
+                .get(3));
+    }
+
+    @Test
+    void decimalsWithinLongRangeStayUnscaled() throws JRException {
+        List<Map<String, Object>> records = new ArrayList<>();
+        for (String decimal : new String[]{"1234567890123456789", "-9223372036854775808", "9223372036854775807",
+                "1E+3", "-1.5E-126"}) {
+            records.add(record("decimal", new BigDecimal(decimal)));
+        }
+        assertSameRows(records, 4096);
+    }
+
+    @Test
+    void dictionaryOverflowFallsBackToObjects() throws JRException {
+        List<Map<String, Object>> records = new ArrayList<>();
+        for (String value : new String[]{"A", "B", null, "A", "C", "D", "B", null, "E", "A"}) {
+            records.add(record("string", value));
+        }
+        // Dictionary of 3 overflows at "D", after values and nulls were already coded
+        assertSameRows(records, 3);
+    }
+
+    @Test
+    void typeMismatchMidBuildKeepsEarlierValues() throws JRException {
+        List<Map<String, Object>> records = new ArrayList<>();
+        records.add(record("int", 1));
+        records.add(record("int", null));
+        records.add(record("int", "2"));
+        // Not a number: the conversion fails, the string is kept and the column turns into objects
+        records.add(record("int", "two"));
+        records.add(record("int", 3L));
+        records.add(record("int", null));
+        records.add(record("flag", "maybe"));
+
+        ConversionErrors errors = new ConversionErrors(5);
+        ColumnarDataSource columnar = ColumnarDataSource.of(plan, records, 4096, errors);
+        assertEquals(Arrays.asList(1, null, 2, "two", 3, null, null), valuesOf(columnar, "int"));
+        assertEquals(2, errors.getTotal());
+        assertSameRows(records, 4096);
+    }
+
+    @Test
+    void builderGrowsBeyondExpectedRows() throws JRException {
+        List<Map<String, Object>> records = new ArrayList<>();
+        ColumnarDataSource.Builder builder = new ColumnarDataSource.Builder(plan, 1, 4, null);
+        for (int i = 0; i < 100; i++) {
+            Map<String, Object> record = new HashMap<>();
+            record.put("long", i % 5 == 0 ? null : (long) i);
+            record.put("decimal", i % 7 == 0 ? null : BigDecimal.valueOf(i, i % 4));
+            record.put("string", i % 11 == 0 ? null : "value " + i % (i < 50 ? 3 : 20));
+            records.add(record);
+            builder.addRecord(record);
+        }
+        ColumnarDataSource columnar = builder.build();
+        assertEquals(100, columnar.getRowCount());
+        assertSameRows(records, columnar);
+    }
+
+    @Test
+    void moveFirstRewinds() throws JRException {
+        List<Map<String, Object>> records = List.of(record("int", 1), record("int", 2));
+        ColumnarDataSource columnar = ColumnarDataSource.of(plan, records, 4096, null);
+        assertEquals(List.of(1, 2), valuesOf(columnar, "int"));
+        assertFalse(columnar.next());
+        columnar.moveFirst();
+        assertEquals(List.of(1, 2), valuesOf(columnar, "int"));
+    }
+
+    private static void assertSameRows(List<Map<String, Object>> records, int maxDictionarySize) throws JRException {
+        assertSameRows(records, ColumnarDataSource.of(plan, records, maxDictionarySize, null));
+    }
+
+    /**
+     * Compare every field of every row with the row-wise data source of the same records,
+     * including the value class (e.g. a Short must not come back as an Integer)
+     */
+    private static void assertSameRows(List<Map<String, Object>> records, ColumnarDataSource columnar)
+            throws JRException {
+        IndexedRecordDataSource indexed = new IndexedRecordDataSource(plan, plan.convert(records));
+        int row = 0;
+        while (indexed.next()) {
+            assertTrue(columnar.next(), "row " + row);
+            for (String name : FIELDS) {
+                Object expected = indexed.getFieldValue(field(name));
+                Object actual = columnar.getFieldValue(field(name));
+                assertEquals(expected, actual, "row " + row + " field " + name);
+                assertEquals(expected != null ? expected.getClass() : null,
+                        actual != null ? actual.getClass() : null, "row " + row + " field " + name);
+            }
+            row++;
+        }
+        assertFalse(columnar.next());
+        assertEquals(records.size(), row);
+    }
+
+    private static List<Object> valuesOf(JRDataSource dataSource, String name) throws JRException {
+        List<Object> values = new ArrayList<>();
+        while (dataSource.next()) {
+            values.add(dataSource.getFieldValue(field(name)));
+        }
+        return values;
+    }
+
+    private static Map<String, Object> record(String name, Object value) {
+        Map<String, Object> record = new HashMap<>();
+        record.put(name, value);
+        return record;
+    }
+
+    private static JRDesignField field(String name) {
+        JRDesignField field = new JRDesignField();
+        field.setName(name);
+        return field;
+    }
+
+    private static JasperDesign design(Object... namesAndClasses) throws JRException {
+        JasperDesign design = new JasperDesign();
+        design.setName("fields");
+        for (int i = 0; i < namesAndClasses.length; i += 2) {
+            JRDesignField field = new JRDesignField();
+            field.setName((String) namesAndClasses[i]);
+            field.setValueClass((Class<?>) namesAndClasses[i + 1]);
+            design.addField(field);
+        }
+        return design;
+    }
+}
@@ -0,0 +1,180 @@
+package com.rajida.report.service;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.design.JRDesignField;
+import net.sf.jasperreports.engine.design.JasperDesign;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.StringReader;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * CSV parsing of streamed request bodies, read whole and one character per read
+ * so that every position is also a buffer boundary
+ */
+class CsvRecordDataSourceTest {
+
+    private static FieldConverterPlan plan;
+
+    @BeforeAll
+    static void compilePlan() throws JRException {
+        plan = FieldConverterPlan.of(JasperCompileManager.compileReport(design(
+                "name", String.class, "amount", Double.class, "note", String.class)));
+    }
+
+    @Test
+    void quotedValuesKeepEscapedQuotesCommasAndLineBreaks() throws Exception {
+        String csv = "name,amount,note\n"
+                + "\"Perera, A.\",10.5,\"said \"\"hi\"\"\"\n"
+                + "\"two\r\nlines\",1,\"\"\"\"\n";
+        for (Reader reader : readers(csv)) {
+            List<Object[]> rows = readAll(reader);
+            assertEquals(2, rows.size());
+            assertRow(rows.get(0), "Perera, A.", 10.5, "said \"hi\"");
+            assertRow(rows.get(1), "two\r\nlines", 1.0, "\"");
+        }
+    }
+
+    @Test
+    void lineEndingsAreCrLfLfOrCr() throws Exception {
+        String csv = "name,amount,note\r\na,1,x\nb,2,y\rc,3,z\r\n";
+        for (Reader reader : readers(csv)) {
+            List<Object[]> rows = readAll(reader);
+            assertEquals(3, rows.size());
+            assertRow(rows.get(0), "a", 1.0, "x");
+            assertRow(rows.get(1), "b", 2.0, "y");
+            // The character after a lone CR is pushed back, not lost
+            assertRow(rows.get(2), "c", 3.0, "z");
+        }
+    }
+
+    @Test
+    void blankLinesAreSkipped() throws Exception {
+        String csv = "\r\n\nname,amount,note\n\n\r\na,1,x\r\r\n\nb,2,y\n\n";
+        for (Reader reader : readers(csv)) {
+            List<Object[]> rows = readAll(reader);
+            assertEquals(2, rows.size());
+            assertRow(rows.get(0), "a", 1.0, "x");
+            assertRow(rows.get(1), "b", 2.0, "y");
+        }
+    }
+
+    @Test
+    void emptyUnquotedValueIsNullAndQuotedEmptyIsEmptyString() throws Exception {
+        String csv = "name,amount,note\n,,\"\"\n\"\",,\n";
+        for (Reader reader : readers(csv)) {
+            List<Object[]> rows = readAll(reader);
+            assertEquals(2, rows.size());
+            assertRow(rows.get(0), null, null, "");
+            assertRow(rows.get(1), "", null, null);
+        }
+    }
+
+    @Test
+    void extraAndMissingColumnsAreIgnored() throws Exception {
+        String csv = "note,unknown,name\nx,ignored,a,beyond header\ny\n";
+        for (Reader reader : readers(csv)) {
+            List<Object[]> rows = readAll(reader);
+            assertEquals(2, rows.size());
+            assertRow(rows.get(0), "a", null, "x");
+            assertRow(rows.get(1), null, null, "y");
+        }
+    }
+
+    @Test
+    void quotedValueAndCrLfAcrossFullBuffer() throws Exception {
+        String header = "name,amount,note\n";
+        // First row ends with CR as the last character of the 16K buffer, LF first of the next read
+        String firstNote = "x".repeat(16 * 1024 - header.length() - "a,1,".length() - 1);
+        // Second row has a quoted value spanning the following buffer boundary
+        String quoted = "q\"\"".repeat(8 * 1024);
+        String csv = header + "a,1," + firstNote + "\r\n" + "b,2,\"" + quoted + "\"\r\n";
+        assertEquals('\r', csv.charAt(16 * 1024 - 1));
+
+        List<Object[]> rows = readAll(new StringReader(csv));
+        assertEquals(2, rows.size());
+        assertRow(rows.get(0), "a", 1.0, firstNote);
+        assertRow(rows.get(1), "b", 2.0, "q\"".repeat(8 * 1024));
+    }
+
+    @Test
+    void unterminatedQuoteFails() throws Exception {
+        CsvRecordDataSource dataSource = new CsvRecordDataSource(new StringReader("name\n\"open"), plan, null);
+        assertThrows(JRException.class, dataSource::next);
+    }
+
+    @Test
+    void bodyWithoutHeaderIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new CsvRecordDataSource(new StringReader("\r\n\n"), plan, null));
+    }
+
+    private static JasperDesign design(Object... namesAndClasses) throws JRException {
+        JasperDesign design = new JasperDesign();
+        design.setName("fields");
+        for (int i = 0; i < namesAndClasses.length; i += 2) {
+            JRDesignField field = new JRDesignField();
+            field.setName((String) namesAndClasses[i]);
+            field.setValueClass((Class<?>) namesAndClasses[i + 1]);
+            design.addField(field);
+        }
+        return design;
+    }
+
+    private static List<Reader> readers(String csv) {
+        return List.of(new StringReader(csv), new OneCharReader(csv));
+    }
+
+    private static List<Object[]> readAll(Reader reader) throws IOException, JRException {
+        CsvRecordDataSource dataSource = new CsvRecordDataSource(reader, plan, null);
+        List<Object[]> rows = new ArrayList<>();
+        while (dataSource.next()) {
+            rows.add(new Object[]{value(dataSource, "name"), value(dataSource, "amount"), value(dataSource, "note")});
+        }
+        return rows;
+    }
+
+    private static Object value(CsvRecordDataSource dataSource, String name) {
+        JRDesignField field = new JRDesignField();
+        field.setName(name);
+        return dataSource.getFieldValue(field);
+    }
+
+    private static void assertRow(Object[] row, Object name, Object amount, Object note) {
+        assertEquals(Arrays.asList(name, amount, note), Arrays.asList(row));
+    }
+
+    /**
+     * Returns at most one character per read
+     */
+    private static final class OneCharReader extends Reader {
+        private final String text;
+        private int position;
+
+        OneCharReader(String text) {
+            this.text = text;
+        }
+
+        @Override
+        public int read(char[] buffer, int offset, int length) {
+            if (position == text.length()) {
+                return -1;
+            }
+            buffer[offset] = text.charAt(position++);
+            return 1;
+        }
+
+        @Override
+        public void close() {
+        }
+    }
+}
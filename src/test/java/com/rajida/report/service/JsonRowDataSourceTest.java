@@ -0,0 +1,114 @@
+package com.rajida.report.service;
+
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.design.JRDesignField;
+import net.sf.jasperreports.engine.design.JasperDesign;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * Header-once rows (columns followed by arrays of values) read from a JSON parser
+ */
+class JsonRowDataSourceTest {
+
+    private static FieldConverterPlan plan;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @BeforeAll
+    static void compilePlan() throws JRException {
+        JasperDesign design = new JasperDesign();
+        design.setName("fields");
+        design.addField(field("name", String.class));
+        design.addField(field("amount", Double.class));
+        design.addField(field("note", String.class));
+        plan = FieldConverterPlan.of(JasperCompileManager.compileReport(design));
+    }
+
+    @Test
+    void valuesAreMatchedToFieldsByColumnPosition() throws Exception {
+        List<Object[]> rows = readAll(List.of("note", "name", "amount"),
+                "[[\"x\", \"a\", 1.5], [null, \"b\", \"2\"]]");
+
+        assertEquals(2, rows.size());
+        assertRow(rows.get(0), "a", 1.5, "x");
+        // "2" is converted to the field's Double
+        assertRow(rows.get(1), "b", 2.0, null);
+    }
+
+    @Test
+    void columnsThatAreNotFieldsAreSkipped() throws Exception {
+        List<Object[]> rows = readAll(List.of("name", "unknown", "amount", "other"),
+                "[[\"a\", {\"nested\": [1, 2]}, 1, [3, 4]], [\"b\", 7, 2, null]]");
+
+        assertEquals(2, rows.size());
+        assertRow(rows.get(0), "a", 1.0, null);
+        assertRow(rows.get(1), "b", 2.0, null);
+    }
+
+    @Test
+    void valuesBeyondTheColumnsAreSkipped() throws Exception {
+        List<Object[]> rows = readAll(List.of("name"), "[[\"a\", 1, {\"x\": 1}, [2]], [\"b\"]]");
+
+        assertEquals(2, rows.size());
+        assertRow(rows.get(0), "a", null, null);
+        assertRow(rows.get(1), "b", null, null);
+    }
+
+    @Test
+    void missingTrailingValuesAreNull() throws Exception {
+        List<Object[]> rows = readAll(List.of("name", "amount", "note"), "[[\"a\", 1, \"x\"], [\"b\"], []]");
+
+        assertEquals(3, rows.size());
+        assertRow(rows.get(0), "a", 1.0, "x");
+        // Values of the previous row are not carried over
+        assertRow(rows.get(1), "b", null, null);
+        assertRow(rows.get(2), null, null, null);
+    }
+
+    @Test
+    void rowThatIsNotAnArrayFails() throws Exception {
+        JsonRowDataSource dataSource = dataSource(List.of("name"), "[{\"name\": \"a\"}]");
+        assertThrows(JRException.class, dataSource::next);
+    }
+
+    private JsonRowDataSource dataSource(List<String> columns, String rowsJson) throws IOException {
+        JsonParser parser = objectMapper.createParser(rowsJson);
+        assertEquals(JsonToken.START_ARRAY, parser.nextToken());
+        return new JsonRowDataSource(parser, columns, plan, null);
+    }
+
+    private List<Object[]> readAll(List<String> columns, String rowsJson) throws IOException, JRException {
+        JsonRowDataSource dataSource = dataSource(columns, rowsJson);
+        List<Object[]> rows = new ArrayList<>();
+        while (dataSource.next()) {
+            rows.add(new Object[]{dataSource.getFieldValue(field("name", String.class)),
+                    dataSource.getFieldValue(field("amount", Double.class)),
+                    dataSource.getFieldValue(field("note", String.class))});
+        }
+        return rows;
+    }
+
+    private static JRDesignField field(String name, Class<?> valueClass) {
+        JRDesignField field = new JRDesignField();
+        field.setName(name);
+        field.setValueClass(valueClass);
+        return field;
+    }
+
+    private static void assertRow(Object[] row, Object name, Object amount, Object note) {
+        assertEquals(Arrays.asList(name, amount, note), Arrays.asList(row));
+    }
+}
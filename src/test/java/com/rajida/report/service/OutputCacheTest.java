@@ -0,0 +1,147 @@
+package com.rajida.report.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * Byte-bounded LRU eviction, spilling to disk and expiry of cached output
+ */
+class OutputCacheTest {
+
+    private static final int ENTRY_BYTES = 700;
+
+    @TempDir
+    Path spillDir;
+
+    @Test
+    void capturedOutputIsPassedThroughAndCached() throws IOException {
+        OutputCache cache = new OutputCache(true, 4000, 5, "", 0);
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        put(cache, "a", 1, response);
+
+        assertArrayEquals(output(1), response.toByteArray());
+        assertArrayEquals(output(1), cache.get("a"));
+        assertNull(cache.get("b"));
+    }
+
+    @Test
+    void outputOverAQuarterOfTheCacheIsStreamedButNotCached() throws IOException {
+        OutputCache cache = new OutputCache(true, 4 * (ENTRY_BYTES - 1), 5, "", 0);
+        ByteArrayOutputStream response = new ByteArrayOutputStream();
+        put(cache, "a", 1, response);
+
+        assertArrayEquals(output(1), response.toByteArray());
+        assertNull(cache.get("a"));
+    }
+
+    @Test
+    void leastRecentlyUsedOutputIsEvictedOverMaxBytes() throws IOException {
+        OutputCache cache = new OutputCache(true, 4 * ENTRY_BYTES, 5, "", 0);
+        for (int i = 1; i <= 4; i++) {
+            put(cache, "k" + i, i);
+        }
+        // k1 becomes the most recently used, so k2 is evicted for k5
+        cache.get("k1");
+        put(cache, "k5", 5);
+
+        assertNull(cache.get("k2"));
+        for (int i : new int[]{1, 3, 4, 5}) {
+            assertArrayEquals(output(i), cache.get("k" + i), "k" + i);
+        }
+    }
+
+    @Test
+    void evictedOutputSpillsToDiskWithinItsLimit() throws IOException {
+        OutputCache cache = new OutputCache(true, 4 * ENTRY_BYTES, 5, spillDir.toString(), 2 * ENTRY_BYTES);
+        for (int i = 1; i <= 7; i++) {
+            put(cache, "k" + i, i);
+        }
+
+        // k1..k3 were spilled, and k1 then dropped from disk to stay within two entries
+        assertEquals(2, fileCount());
+        assertNull(cache.get("k1"));
+        for (int i = 2; i <= 7; i++) {
+            assertArrayEquals(output(i), cache.get("k" + i), "k" + i);
+        }
+    }
+
+    @Test
+    void cachingAKeyAgainReplacesItsSpilledOutput() throws IOException {
+        OutputCache cache = new OutputCache(true, 4 * ENTRY_BYTES, 5, spillDir.toString(), 4 * ENTRY_BYTES);
+        for (int i = 1; i <= 5; i++) {
+            put(cache, "k" + i, i);
+        }
+        assertEquals(1, fileCount());
+
+        put(cache, "k1", 9);
+        assertArrayEquals(output(9), cache.get("k1"));
+        // The spilled k1 was deleted, k2 was spilled to make room
+        assertEquals(1, fileCount());
+        assertArrayEquals(output(2), cache.get("k2"));
+    }
+
+    @Test
+    void expiredOutputIsRemovedWithItsFiles() throws Exception {
+        OutputCache cache = new OutputCache(true, 4 * ENTRY_BYTES, 0, spillDir.toString(), 4 * ENTRY_BYTES);
+        for (int i = 1; i <= 6; i++) {
+            put(cache, "k" + i, i);
+        }
+        assertEquals(2, fileCount());
+        Thread.sleep(5);
+
+        assertNull(cache.get("k6"));
+        cache.removeExpired();
+        assertEquals(0, fileCount());
+        assertNull(cache.get("k1"));
+    }
+
+    @Test
+    void clearDeletesSpilledFiles() throws IOException {
+        OutputCache cache = new OutputCache(true, 4 * ENTRY_BYTES, 5, spillDir.toString(), 4 * ENTRY_BYTES);
+        for (int i = 1; i <= 6; i++) {
+            put(cache, "k" + i, i);
+        }
+        assertEquals(2, fileCount());
+
+        cache.clear();
+        assertEquals(0, fileCount());
+        assertNull(cache.get("k6"));
+    }
+
+    private static void put(OutputCache cache, String key, int content) throws IOException {
+        put(cache, key, content, new ByteArrayOutputStream());
+    }
+
+    private static void put(OutputCache cache, String key, int content, ByteArrayOutputStream response)
+            throws IOException {
+        OutputCache.Capture capture = cache.capture(key, response);
+        byte[] output = output(content);
+        // Written in two parts, as exporters do
+        capture.write(output, 0, 100);
+        capture.write(output, 100, output.length - 100);
+        capture.commit();
+    }
+
+    private static byte[] output(int content) {
+        byte[] output = new byte[ENTRY_BYTES];
+        Arrays.fill(output, (byte) content);
+        return output;
+    }
+
+    private long fileCount() throws IOException {
+        try (Stream<Path> files = Files.list(spillDir)) {
+            return files.count();
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.rajida.report.service;
+
+import net.sf.jasperreports.engine.JRException;
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JRPrintText;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.base.JRBasePrintPage;
+import net.sf.jasperreports.engine.base.JRBasePrintText;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+/**
+ * Compressed prints: round trip, size limits, LRU eviction, expiry and the
+ * deserialized prints kept for previews
+ */
+class PrintCacheTest {
+
+    @Test
+    void printRoundTripsAndStaysLoaded() throws JRException {
+        PrintCache cache = new PrintCache(1 << 20, 15, 4);
+        PrintCache.Entry entry = cache.put("p1", "report.jrxml", print(3));
+
+        assertEquals(3, entry.getPageCount());
+        assertEquals("report.jrxml", entry.getJrxmlFileName());
+        assertEquals(entry.getSize(), cache.getTotalBytes());
+        assertSame(entry, cache.get("p1"));
+
+        JasperPrint loaded = cache.load(entry);
+        assertEquals(List.of("row 1", "row 2", "row 3"), texts(loaded));
+        assertSame(loaded, cache.load(entry));
+    }
+
+    @Test
+    void printOverAQuarterOfTheCacheIsNotStored() throws JRException {
+        long size = sizeOf(print(3));
+        PrintCache cache = new PrintCache(4 * size - 1, 15, 4);
+
+        assertNull(cache.put("p1", "report.jrxml", print(3)));
+        assertNull(cache.get("p1"));
+        assertEquals(0, cache.getTotalBytes());
+    }
+
+    @Test
+    void leastRecentlyUsedPrintIsEvictedOverMaxBytes() throws JRException {
+        long size = sizeOf(print(3));
+        PrintCache cache = new PrintCache(4 * size + size / 2, 15, 4);
+        for (int i = 1; i <= 4; i++) {
+            assertNotNull(cache.put("p" + i, "report.jrxml", print(3)));
+        }
+        // p1 becomes the most recently used, so p2 is evicted for p5
+        cache.get("p1");
+        cache.put("p5", "report.jrxml", print(3));
+
+        assertNull(cache.get("p2"));
+        for (int i : new int[]{1, 3, 4, 5}) {
+            assertNotNull(cache.get("p" + i), "p" + i);
+        }
+        assertEquals(4 * size, cache.getTotalBytes());
+    }
+
+    @Test
+    void expiredPrintsAreRemoved() throws Exception {
+        PrintCache cache = new PrintCache(1 << 20, 0, 4);
+        PrintCache.Entry first = cache.put("p1", "report.jrxml", print(1));
+        cache.put("p2", "report.jrxml", print(1));
+        Thread.sleep(5);
+
+        assertNull(cache.get("p1"));
+        assertEquals(first.getSize(), cache.getTotalBytes());
+        cache.removeExpired();
+        assertEquals(0, cache.getTotalBytes());
+        assertNull(cache.get("p2"));
+    }
+
+    @Test
+    void onlyMostRecentlyLoadedPrintsStayDeserialized() throws JRException {
+        PrintCache cache = new PrintCache(1 << 20, 15, 1);
+        PrintCache.Entry first = cache.put("p1", "report.jrxml", print(2));
+        PrintCache.Entry second = cache.put("p2", "report.jrxml", print(2));
+
+        JasperPrint loaded = cache.load(first);
+        cache.load(second);
+        JasperPrint reloaded = cache.load(first);
+        assertNotSame(loaded, reloaded);
+        assertEquals(texts(loaded), texts(reloaded));
+    }
+
+    @Test
+    void evictedPrintStillLoadsButIsNotKept() throws JRException {
+        long size = sizeOf(print(2));
+        PrintCache cache = new PrintCache(4 * size, 15, 4);
+        PrintCache.Entry first = cache.put("p1", "report.jrxml", print(2));
+        for (int i = 2; i <= 5; i++) {
+            cache.put("p" + i, "report.jrxml", print(2));
+        }
+        assertNull(cache.get("p1"));
+
+        // An export that looked the entry up before it was evicted can still finish
+        JasperPrint loaded = cache.load(first);
+        assertEquals(List.of("row 1", "row 2"), texts(loaded));
+        assertNotSame(loaded, cache.load(first));
+    }
+
+    private static long sizeOf(JasperPrint jasperPrint) throws JRException {
+        return new PrintCache(1 << 20, 15, 4).put("size", "report.jrxml", jasperPrint).getSize();
+    }
+
+    private static JasperPrint print(int pageCount) {
+        JasperPrint jasperPrint = new JasperPrint();
+        jasperPrint.setName("report");
+        for (int i = 1; i <= pageCount; i++) {
+            JRBasePrintPage page = new JRBasePrintPage();
+            JRBasePrintText text = new JRBasePrintText(null);
+            text.setText("row " + i);
+            page.addElement(text);
+            jasperPrint.addPage(page);
+        }
+        return jasperPrint;
+    }
+
+    private static List<String> texts(JasperPrint jasperPrint) {
+        List<String> texts = new ArrayList<>();
+        for (JRPrintPage page : jasperPrint.getPages()) {
+            for (JRPrintElement element : page.getElements()) {
+                texts.add(((JRPrintText) element).getFullText());
+            }
+        }
+        return texts;
+    }
+}
@@ -0,0 +1,57 @@
+package com.rajida.report.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.ApplicationContext;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import javax.sql.DataSource;
+import java.nio.file.Path;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Without a database URL no DataSource is created, even with H2 on the classpath,
+ * and query-file requests are rejected instead of filling empty reports
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class QueryReportDisabledTest {
+
+    @TempDir
+    static Path uploadDir;
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("upload.dir", () -> uploadDir.toString());
+    }
+
+    @Test
+    void queryFileIsBadRequestWithoutDatabase() throws Exception {
+        assertEquals(0, applicationContext.getBeanNamesForType(DataSource.class).length);
+
+        String body = "{\"jrxmlFileName\":\"Savings_Product_Sum_S.jrxml\","
+                + "\"queryFile\":\"Savings_Product_Sum_S.sql\",\"parameters\":{\"parm_a\":1}}";
+        for (String path : new String[]{"/api/reports/export-pdf-with-data", "/api/reports/jobs"}) {
+            mockMvc.perform(post(path).contentType(MediaType.APPLICATION_JSON).content(body))
+                    .andExpect(status().isBadRequest())
+                    .andExpect(content().string(containsString("REPORT_DB_URL")));
+        }
+    }
+}
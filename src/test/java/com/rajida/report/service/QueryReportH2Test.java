@@ -0,0 +1,131 @@
+package com.rajida.report.service;
+
+import com.rajida.report.model.ReportData;
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintFrame;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JRPrintText;
+import net.sf.jasperreports.engine.JasperPrint;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.InvalidDataAccessApiUsageException;
+import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Query-file reports against the embedded H2 database of the h2 profile
+ * (db/h2/schema.sql and data.sql, rows for parm_a = 1)
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+@ActiveProfiles("h2")
+class QueryReportH2Test {
+
+    private static final String TEMPLATE = "Savings_Product_Sum_S.jrxml";
+    private static final String QUERY = "Savings_Product_Sum_S.sql";
+
+    @TempDir
+    static Path uploadDir;
+
+    @Autowired
+    private ReportService reportService;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("upload.dir", () -> uploadDir.toString());
+        registry.add("report.cache.persist-compiled", () -> "false");
+    }
+
+    @BeforeAll
+    static void copyTemplate() throws IOException {
+        try (InputStream in = QueryReportH2Test.class.getResourceAsStream("/templates/" + TEMPLATE)) {
+            Files.copy(in, uploadDir.resolve(TEMPLATE));
+        }
+    }
+
+    @Test
+    void fillsRowsSelectedByBoundParameter() throws Exception {
+        try (FilledReport filledReport = reportService.fillReportFromQuery(request(1))) {
+            List<String> texts = texts(filledReport.getJasperPrint());
+            for (String customer : List.of("C0001", "C0002", "C0003", "C0004")) {
+                assertTrue(texts.contains(customer), "missing row of " + customer);
+            }
+        }
+    }
+
+    @Test
+    void parameterSelectsNoRowsForOtherReport() throws Exception {
+        try (FilledReport filledReport = reportService.fillReportFromQuery(request(999))) {
+            assertFalse(texts(filledReport.getJasperPrint()).contains("C0001"));
+        }
+    }
+
+    @Test
+    void missingParameterIsBadRequest() throws Exception {
+        ReportData reportData = request(1);
+        reportData.getParameters().remove("parm_a");
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class,
+                () -> reportService.fillReportFromQuery(reportData));
+        assertInstanceOf(InvalidDataAccessApiUsageException.class, e.getCause());
+
+        mockMvc.perform(post("/api/reports/export-pdf-with-data")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("{\"jrxmlFileName\":\"" + TEMPLATE + "\",\"queryFile\":\"" + QUERY
+                                + "\",\"parameters\":{}}"))
+                .andExpect(status().isBadRequest());
+    }
+
+    private static ReportData request(int reportId) {
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("parm_a", reportId);
+        ReportData reportData = new ReportData();
+        reportData.setJrxmlFileName(TEMPLATE);
+        reportData.setQueryFile(QUERY);
+        reportData.setParameters(parameters);
+        return reportData;
+    }
+
+    private static List<String> texts(JasperPrint jasperPrint) {
+        List<String> texts = new ArrayList<>();
+        for (JRPrintPage page : jasperPrint.getPages()) {
+            collectTexts(page.getElements(), texts);
+        }
+        return texts;
+    }
+
+    private static void collectTexts(List<JRPrintElement> elements, List<String> texts) {
+        for (JRPrintElement element : elements) {
+            if (element instanceof JRPrintFrame frame) {
+                collectTexts(frame.getElements(), texts);
+            } else if (element instanceof JRPrintText text && text.getFullText() != null) {
+                texts.add(text.getFullText().trim());
+            }
+        }
+    }
+}
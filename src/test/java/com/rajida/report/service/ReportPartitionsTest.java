@@ -0,0 +1,156 @@
+package com.rajida.report.service;
+
+import net.sf.jasperreports.engine.JRPrintElement;
+import net.sf.jasperreports.engine.JRPrintFrame;
+import net.sf.jasperreports.engine.JRPrintPage;
+import net.sf.jasperreports.engine.JRPrintText;
+import net.sf.jasperreports.engine.JasperCompileManager;
+import net.sf.jasperreports.engine.JasperPrint;
+import net.sf.jasperreports.engine.base.JRBasePrintFrame;
+import net.sf.jasperreports.engine.base.JRBasePrintPage;
+import net.sf.jasperreports.engine.base.JRBasePrintText;
+import org.junit.jupiter.api.Test;
+
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Splitting rows on a group key and merging the partition reports
+ */
+class ReportPartitionsTest {
+
+    @Test
+    void splitCutsOnlyWhereKeyChanges() {
+        List<Object[]> rows = rows("A", "A", "A", "B", "B", "B", "B", "B", "C", "C", "D", "D");
+        List<List<Object[]>> partitions = ReportPartitions.split(rows, 0, 4);
+
+        assertTrue(partitions.size() > 1 && partitions.size() <= 4, "partitions: " + partitions.size());
+        Set<Object> seenKeys = new HashSet<>();
+        List<Object[]> joined = new ArrayList<>();
+        for (List<Object[]> partition : partitions) {
+            assertFalse(partition.isEmpty());
+            // A key continuing from the previous partition would mean a group was cut
+            assertTrue(seenKeys.add(partition.get(0)[0]), "group " + partition.get(0)[0] + " was split");
+            for (int i = 1; i < partition.size(); i++) {
+                if (!partition.get(i)[0].equals(partition.get(i - 1)[0])) {
+                    assertTrue(seenKeys.add(partition.get(i)[0]), "group " + partition.get(i)[0] + " was split");
+                }
+            }
+            joined.addAll(partition);
+        }
+        assertEquals(rows.size(), joined.size());
+        for (int i = 0; i < rows.size(); i++) {
+            assertSame(rows.get(i), joined.get(i));
+        }
+    }
+
+    @Test
+    void singleKeyIsOnePartition() {
+        List<Object[]> rows = rows("A", "A", "A", "A", "A", "A");
+        List<List<Object[]>> partitions = ReportPartitions.split(rows, 0, 4);
+
+        assertEquals(1, partitions.size());
+        assertEquals(rows.size(), partitions.get(0).size());
+    }
+
+    @Test
+    void morePartitionsThanKeysGivesOnePartitionPerKey() {
+        List<Object[]> rows = rows("A", "A", "B", "B", "C");
+        List<List<Object[]>> partitions = ReportPartitions.split(rows, 0, 10);
+
+        assertEquals(3, partitions.size());
+        assertEquals(List.of("A", "A"), keys(partitions.get(0)));
+        assertEquals(List.of("B", "B"), keys(partitions.get(1)));
+        assertEquals(List.of("C"), keys(partitions.get(2)));
+    }
+
+    @Test
+    void mergeKeepsPageOrderAndRewritesPageNumbers() throws Exception {
+        JasperPrint first = print("first", 2);
+        JasperPrint merged = ReportPartitions.merge(List.of(first, print("second", 1), print("third", 2)));
+
+        assertSame(first, merged);
+        List<JRPrintPage> pages = merged.getPages();
+        assertEquals(5, pages.size());
+        List<String> labels = List.of("first 1", "first 2", "second 1", "third 1", "third 2");
+        List<String> unmarked = List.of("page 1", "page 2", "page 1", "page 1", "page 2");
+        for (int i = 0; i < pages.size(); i++) {
+            List<String> texts = texts(pages.get(i).getElements());
+            assertEquals(labels.get(i), texts.get(0));
+            // The marked page number sits in a frame, the unmarked one is left as filled
+            assertEquals("Page " + (i + 1) + " of 5", texts.get(1));
+            assertEquals(unmarked.get(i), texts.get(2));
+        }
+    }
+
+    @Test
+    void reportLevelTotalsAreNotPartitioned() throws Exception {
+        try (InputStream in = getClass().getResourceAsStream("/templates/Savings_Product_Sum_S.jrxml")) {
+            String reason = ReportPartitions.unsupportedReason(JasperCompileManager.compileReport(in));
+            assertNotNull(reason);
+            assertTrue(reason.contains("grandTotal"), reason);
+        }
+    }
+
+    private static List<Object[]> rows(String... keys) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < keys.length; i++) {
+            rows.add(new Object[]{keys[i], i});
+        }
+        return rows;
+    }
+
+    private static List<Object> keys(List<Object[]> partition) {
+        return partition.stream().map(row -> row[0]).toList();
+    }
+
+    /**
+     * Partition report whose pages hold a label, a marked page number in a frame and an
+     * unmarked page number, as filled (numbered within the partition)
+     */
+    private static JasperPrint print(String label, int pageCount) {
+        JasperPrint jasperPrint = new JasperPrint();
+        jasperPrint.setName(label);
+        for (int i = 1; i <= pageCount; i++) {
+            JRBasePrintPage page = new JRBasePrintPage();
+            page.addElement(text(label + " " + i));
+
+            JRBasePrintFrame frame = new JRBasePrintFrame(null);
+            JRBasePrintText pageNumber = text(String.valueOf(i));
+            pageNumber.getPropertiesMap().setProperty(ReportPartitions.PAGE_NUMBER_PROPERTY, "Page {0} of {1}");
+            frame.addElement(pageNumber);
+            page.addElement(frame);
+
+            page.addElement(text("page " + i));
+            jasperPrint.addPage(page);
+        }
+        return jasperPrint;
+    }
+
+    private static JRBasePrintText text(String value) {
+        JRBasePrintText text = new JRBasePrintText(null);
+        text.setText(value);
+        return text;
+    }
+
+    private static List<String> texts(List<JRPrintElement> elements) {
+        List<String> texts = new ArrayList<>();
+        for (JRPrintElement element : elements) {
+            if (element instanceof JRPrintFrame frame) {
+                texts.addAll(texts(frame.getElements()));
+            } else if (element instanceof JRPrintText text) {
+                texts.add(text.getFullText());
+            }
+        }
+        return texts;
+    }
+}
@@ -0,0 +1,120 @@
+package com.rajida.report.service;
+
+import com.rajida.report.model.ReportData;
+import com.rajida.report.model.ReportPrint;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.not;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * Prints of reports over the virtualization page threshold, previewed page by page
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class ReportPrintPagesTest {
+
+    private static final String TEMPLATE = "Savings_Product_Sum_S.jrxml";
+    private static final int PAGE_THRESHOLD = 5;
+    private static final int ROWS = 400;
+
+    @TempDir
+    static Path uploadDir;
+
+    @Autowired
+    private ReportPrintService reportPrintService;
+
+    @Autowired
+    private CompiledReportCache compiledReportCache;
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @DynamicPropertySource
+    static void properties(DynamicPropertyRegistry registry) {
+        registry.add("upload.dir", () -> uploadDir.toString());
+        registry.add("report.cache.persist-compiled", () -> "false");
+        registry.add("report.virtualizer.mode", () -> "auto");
+        registry.add("report.virtualizer.page-threshold", () -> String.valueOf(PAGE_THRESHOLD));
+    }
+
+    @BeforeAll
+    static void copyTemplate() throws IOException {
+        try (InputStream in = ReportPrintPagesTest.class.getResourceAsStream("/templates/" + TEMPLATE)) {
+            Files.copy(in, uploadDir.resolve(TEMPLATE));
+        }
+    }
+
+    @Test
+    void printOverPageThresholdIsCachedAndServedPageByPage() throws Exception {
+        // An export of the same request would be virtualized
+        assertTrue(ReportVirtualizerFactory.estimatePages(
+                compiledReportCache.get(TEMPLATE).getJasperReport(), ROWS) >= PAGE_THRESHOLD);
+
+        ReportPrint print = reportPrintService.createPrint(largeReport());
+        assertTrue(print.getPageCount() > PAGE_THRESHOLD, "pages: " + print.getPageCount());
+        assertFalse(print.isCached());
+
+        mockMvc.perform(get("/api/reports/prints/" + print.getPrintId() + "/pages"))
+                .andExpect(status().isOk())
+                .andExpect(content().string(containsString("\"pageCount\":" + print.getPageCount())));
+
+        MvcResult result = mockMvc.perform(get("/api/reports/prints/" + print.getPrintId() + "/html")
+                        .param("page", String.valueOf(PAGE_THRESHOLD)))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(header().string("X-Page-Count", String.valueOf(print.getPageCount())))
+                .andExpect(content().string(containsString("<html")))
+                // The first row is on page 1, not on the page exported
+                .andExpect(content().string(not(containsString("C0001"))));
+    }
+
+    private static ReportData largeReport() {
+        List<Map<String, Object>> records = new ArrayList<>();
+        for (int i = 1; i <= ROWS; i++) {
+            Map<String, Object> record = new HashMap<>();
+            record.put("id", i);
+            record.put("customer_number", String.format("C%04d", i));
+            record.put("ref_account_number", "SA-" + i);
+            record.put("full_name_ln1", "Member " + i);
+            record.put("closing_balance", i * 10.0);
+            record.put("COLUMN_41", "Product " + (i % 3));
+            records.add(record);
+        }
+        Map<String, Object> parameters = new HashMap<>();
+        parameters.put("ReportTitle", "Savings");
+        ReportData reportData = new ReportData();
+        reportData.setJrxmlFileName(TEMPLATE);
+        reportData.setParameters(parameters);
+        reportData.setDataRecords(records);
+        return reportData;
+    }
+}